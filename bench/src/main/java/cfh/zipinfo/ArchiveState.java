@@ -0,0 +1,53 @@
+/*
+ * Copyright: Carlos F. Heuberger. All rights reserved.
+ *
+ */
+package cfh.zipinfo;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * A generated archive and its central directory bytes, shared by the benchmarks of one trial.
+ *
+ * @author Carlos F. Heuberger, 2026-10-17
+ *
+ */
+@State(Scope.Benchmark)
+public class ArchiveState {
+
+    @Param
+    public Archives.Shape shape;
+
+    public Path directory;
+    public File file;
+    public long offset;
+    public byte[] records;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory("jzipinfo-bench");
+        file = Archives.create(shape, directory);
+        try (var input = RandomAccessInput.open(file, RandomAccessInput.Mode.Direct)) {
+            var central = CentralDirectory.read(input);
+            offset = central.offset();
+            input.seek(offset);
+            records = input.readBytes((int) central.size());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file.toPath());
+        Files.deleteIfExists(directory);
+    }
+}
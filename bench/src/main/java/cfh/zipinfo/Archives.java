@@ -0,0 +1,116 @@
+/*
+ * Copyright: Carlos F. Heuberger. All rights reserved.
+ *
+ */
+package cfh.zipinfo;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Synthetic archives of different shapes for the benchmarks, always generated with the same seed.
+ *
+ * @author Carlos F. Heuberger, 2026-10-17
+ *
+ */
+public abstract class Archives {
+
+    private Archives() {
+        throw new AssertionError("should not be instanciated");
+    }
+
+    public enum Shape {
+        /** Many tiny deflated entries. */
+        Tiny,
+        /** A few huge stored entries. */
+        Huge,
+        /** Entries with long names in deep directories. */
+        LongNames,
+        /** Entries with big extra fields. */
+        BigExtra,
+    }
+
+    private static final long SEED = 0x5EED_2026L;
+
+    public static File create(Shape shape, Path directory) throws IOException {
+        var file = Files.createTempFile(directory, shape.name(), ".zip");
+        var random = new Random(SEED);
+        try (var zip = new ZipOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 1 << 16))) {
+            switch (shape) {
+                case Tiny -> {
+                    for (var i = 0; i < 20_000; i++) {
+                        deflated(zip, "tiny/%05d.txt".formatted(i), text(random, 10 + random.nextInt(100)), null);
+                    }
+                }
+                case Huge -> {
+                    var data = new byte[64 * 1024 * 1024];
+                    for (var i = 0; i < 4; i++) {
+                        random.nextBytes(data);
+                        stored(zip, "huge/%d.bin".formatted(i), data);
+                    }
+                }
+                case LongNames -> {
+                    for (var i = 0; i < 5_000; i++) {
+                        var name = new StringBuilder();
+                        while (name.length() < 1_000) {
+                            name.append("directory").append(random.nextInt(100)).append('/');
+                        }
+                        name.append(i).append(".class");
+                        deflated(zip, name.toString(), text(random, 200), null);
+                    }
+                }
+                case BigExtra -> {
+                    for (var i = 0; i < 2_000; i++) {
+                        var extra = new byte[4 + 30_000];
+                        random.nextBytes(extra);
+                        extra[0] = (byte) 0xCA;  // unknown header ID
+                        extra[1] = (byte) 0xFE;
+                        extra[2] = (byte) ((extra.length - 4) & 0xFF);
+                        extra[3] = (byte) ((extra.length - 4) >> 8);
+                        deflated(zip, "extra/%04d.txt".formatted(i), text(random, 100), extra);
+                    }
+                }
+            }
+        }
+        return file.toFile();
+    }
+
+    private static byte[] text(Random random, int length) {
+        var bytes = new byte[length];
+        for (var i = 0; i < length; i++) {
+            bytes[i] = (byte) ('a' + random.nextInt(26));
+        }
+        return bytes;
+    }
+
+    private static void deflated(ZipOutputStream zip, String name, byte[] data, byte[] extra) throws IOException {
+        var entry = new ZipEntry(name);
+        entry.setMethod(ZipEntry.DEFLATED);
+        if (extra != null) {
+            entry.setExtra(extra);
+        }
+        zip.putNextEntry(entry);
+        zip.write(data);
+        zip.closeEntry();
+    }
+
+    private static void stored(ZipOutputStream zip, String name, byte[] data) throws IOException {
+        var crc = new CRC32();
+        crc.update(data);
+        var entry = new ZipEntry(name);
+        entry.setMethod(ZipEntry.STORED);
+        entry.setSize(data.length);
+        entry.setCompressedSize(data.length);
+        entry.setCrc(crc.getValue());
+        zip.putNextEntry(entry);
+        zip.write(data);
+        zip.closeEntry();
+    }
+}
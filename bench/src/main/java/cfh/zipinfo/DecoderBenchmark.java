@@ -0,0 +1,95 @@
+/*
+ * Copyright: Carlos F. Heuberger. All rights reserved.
+ *
+ */
+package cfh.zipinfo;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link Decoder#read} of one record of each type from an in-memory input, all its variable
+ * length fields {@code length} bytes long; and the same record decoded to boxed {@link Field}s
+ * as done for printing.
+ *
+ * @author Carlos F. Heuberger, 2026-10-17
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DecoderBenchmark {
+
+    @Param({"LocalFileHeader", "DataDescriptor", "CentralDirectoryFileHeader", "EndOfCentralDirectory", "Zip64EndOfCentralDirectory"})
+    public String type;
+
+    /** Length of the text and byte fields. */
+    @Param({"40"})
+    public int length;
+
+    private EntryType entryType;
+    private RandomAccessInput input;
+
+    @Setup
+    public void setup() throws IOException {
+        entryType = EntryType.valueOf(type);
+        var fields = entryType.fields();
+        var decoder = entryType.decoder();
+        var variable = 0;
+        for (var fieldType : fields) {
+            if (fieldType.width() == 0 && !(fieldType instanceof FieldType.Signature)) {
+                variable += length;
+            }
+        }
+        var bytes = new byte[decoder.fixed() + variable];
+        new Random(1).nextBytes(bytes);
+        for (var i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) ('a' + (bytes[i] & 0x0F));
+        }
+        // the fields giving the length of the variable fields
+        var offset = 0;
+        for (var fieldType : fields) {
+            var size = switch (fieldType) {
+                case FieldType.Length l -> length;
+                case FieldType.EightBytes e when fieldType.name().equals("Record size") -> length + 44;
+                default -> -1;
+            };
+            if (size != -1) {
+                for (var i = 0; i < fieldType.width(); i++) {
+                    bytes[offset + i] = (byte) (size >>> 8 * i);
+                }
+            }
+            offset += fieldType.width();
+        }
+        input = RandomAccessInput.wrap(bytes, 0);
+    }
+
+    @Benchmark
+    public Entry read() throws IOException {
+        input.seek(0);
+        return entryType.decoder().read(0, entryType, input);
+    }
+
+    @Benchmark
+    public List<Field<?>> fields() throws IOException {
+        input.seek(0);
+        return entryType.decoder().read(0, entryType, input).fields();
+    }
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright: Carlos F. Heuberger. All rights reserved.
+ *
+ */
+package cfh.zipinfo;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * {@link Entry#read(RandomAccessInput)} of all central directory headers, already in memory.
+ *
+ * @author Carlos F. Heuberger, 2026-10-17
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EntryBenchmark {
+
+    @Benchmark
+    public void read(ArchiveState archive, Blackhole blackhole) throws IOException {
+        var input = RandomAccessInput.wrap(archive.records, archive.offset);
+        var end = input.length();
+        while (input.position() < end) {
+            blackhole.consume(Entry.read(input));
+        }
+    }
+}
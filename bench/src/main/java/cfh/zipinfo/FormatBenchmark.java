@@ -0,0 +1,85 @@
+/*
+ * Copyright: Carlos F. Heuberger. All rights reserved.
+ *
+ */
+package cfh.zipinfo;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The {@link Format} helpers.
+ *
+ * @author Carlos F. Heuberger, 2026-10-17
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FormatBenchmark {
+
+    private final byte[] extra = new byte[36];
+    private final String name = "META-INF/maven/cfh/jzipinfo/pom.properties";
+
+    public FormatBenchmark() {
+        new Random(1).nextBytes(extra);
+    }
+
+    @Benchmark
+    public String hex1() {
+        return Format.hex1((byte) 0xA5);
+    }
+
+    @Benchmark
+    public String hex2() {
+        return Format.hex2((short) 0x0814);
+    }
+
+    @Benchmark
+    public String hex4() {
+        return Format.hex4(0x8dc4_565d);
+    }
+
+    @Benchmark
+    public String hex8() {
+        return Format.hex8(0x0000_0012_3456_789aL);
+    }
+
+    @Benchmark
+    public String unsigned2() {
+        return Format.unsigned2((short) 0xFFFE);
+    }
+
+    @Benchmark
+    public String bytes() {
+        return Format.bytes(extra);
+    }
+
+    @Benchmark
+    public String text() {
+        return Format.text(name);
+    }
+
+    @Benchmark
+    public String version() {
+        return Format.version((short) 0x031e);
+    }
+
+    @Benchmark
+    public String flags() {
+        return Format.flags((short) 0x0809);
+    }
+}
@@ -0,0 +1,196 @@
+/*
+ * Copyright: Carlos F. Heuberger. All rights reserved.
+ *
+ */
+package cfh.zipinfo;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Random;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Repeatable synthetic archives of production size: the same arguments always give the same bytes.
+ *
+ * <p>An archive has {@code entries} small entries in deep directories with mixed extensions, most
+ * deflated with a data descriptor, every fifth stored, every 64th with a big extra field and some
+ * with UTF-8 names; more than 65535 entries need the Zip64 end records. It is followed by
+ * {@code huge} bytes in stored entries of at most {@link #PART} bytes, each beyond 4 GB with its
+ * sizes and offset in a Zip64 extra field.
+ *
+ * <pre>
+ *   java -cp bench/target/benchmarks.jar cfh.zipinfo.Generator [--seed=n] &lt;file&gt; &lt;entries&gt; [&lt;huge&gt;[K|M|G]]
+ * </pre>
+ *
+ * @author Carlos F. Heuberger, 2026-10-17
+ *
+ */
+public final class Generator {
+
+    /** Maximum size of one huge entry, more than 4 GB to need Zip64. */
+    public static final long PART = 5L << 30;
+
+    public static final long SEED = 0x5EED_2026L;
+
+    /** Last modification of all entries, fixed so the archive is repeatable. */
+    private static final long TIME = 1_790_000_000_000L;
+
+    private static final String[] EXTENSIONS = { "class", "class", "class", "txt", "xml", "properties", "png", "bin" };
+
+    private static final String[] WORDS = {
+        "archive", "central", "directory", "entry", "local", "header", "extra", "field", "deflate", "stored",
+        "offset", "size", "name", "comment", "signature", "version", "flags", "method", "time", "date",
+    };
+
+    public static void main(String[] args) throws IOException {
+        var seed = SEED;
+        var i = 0;
+        if (i < args.length && args[i].startsWith("--seed=")) {
+            seed = Long.parseLong(args[i++].substring(7));
+        }
+        if (args.length - i < 2 || args.length - i > 3) {
+            System.err.println("Arguments: [--seed=<n>] <file> <entries> [<huge bytes>[K|M|G]]");
+            System.exit(1);
+        }
+        var file = Path.of(args[i]);
+        var entries = Integer.parseInt(args[i + 1]);
+        var huge = (args.length - i == 3) ? bytes(args[i + 2]) : 0;
+        var start = System.nanoTime();
+        generate(file, entries, huge, seed);
+        System.out.printf("%s: %d entries, %,d huge bytes, %,d bytes in %.1f s%n",
+            file, entries, huge, Files.size(file), (System.nanoTime() - start) / 1e9);
+    }
+
+    /**
+     * The archive in {@code directory} for the given arguments, generated if not already there.
+     * The name contains the arguments.
+     */
+    public static Path archive(Path directory, int entries, long huge, long seed) throws IOException {
+        var file = directory.resolve("synthetic-%d-%d-%x.zip".formatted(entries, huge, seed));
+        if (!Files.exists(file)) {
+            Files.createDirectories(directory);
+            generate(file, entries, huge, seed);
+        }
+        return file;
+    }
+
+    /** Generates the archive, first to a temporary file renamed when complete. */
+    public static void generate(Path file, int entries, long huge, long seed) throws IOException {
+        var temp = file.resolveSibling(file.getFileName() + ".tmp");
+        var random = new Random(seed);
+        try (var zip = new ZipOutputStream(new BufferedOutputStream(Files.newOutputStream(temp), 1 << 16))) {
+            for (var i = 0; i < entries; i++) {
+                var extension = EXTENSIONS[random.nextInt(EXTENSIONS.length)];
+                var name = (i % 1000 == 999)
+                    ? "synthetic/d%03d/grüße-%07d.%s".formatted(i % 997, i, extension)
+                    : "synthetic/d%03d/s%02d/%07d.%s".formatted(i % 997, i % 31, i, extension);
+                var length = random.nextInt(4 * 1024);
+                var data = switch (extension) {
+                    case "png", "bin" -> {
+                        var bytes = new byte[length];
+                        random.nextBytes(bytes);
+                        yield bytes;
+                    }
+                    default -> text(random, length);
+                };
+                var entry = new ZipEntry(name);
+                entry.setTime(TIME);
+                if (i % 64 == 63) {
+                    entry.setExtra(extra(random, 8 * 1024));
+                }
+                if (i % 5 == 4) {
+                    stored(zip, entry, data);
+                } else {
+                    // deflated entries are written with a data descriptor
+                    entry.setMethod(ZipEntry.DEFLATED);
+                    zip.putNextEntry(entry);
+                    zip.write(data);
+                    zip.closeEntry();
+                }
+            }
+            var block = new byte[1 << 20];
+            random.nextBytes(block);
+            for (var part = 0; huge > 0; part++) {
+                var size = Math.min(huge, PART);
+                huge -= size;
+                var entry = new ZipEntry("huge/%d.bin".formatted(part));
+                entry.setTime(TIME);
+                entry.setMethod(ZipEntry.STORED);
+                entry.setSize(size);
+                entry.setCompressedSize(size);
+                entry.setCrc(crc(block, size));
+                zip.putNextEntry(entry);
+                for (var written = 0L; written < size; written += block.length) {
+                    zip.write(block, 0, (int) Math.min(block.length, size - written));
+                }
+                zip.closeEntry();
+            }
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /** Number of bytes with an optional {@code K}, {@code M} or {@code G} suffix. */
+    static long bytes(String text) {
+        var unit = switch (text.isEmpty() ? ' ' : Character.toUpperCase(text.charAt(text.length() - 1))) {
+            case 'K' -> 1L << 10;
+            case 'M' -> 1L << 20;
+            case 'G' -> 1L << 30;
+            default -> 1L;
+        };
+        return Long.parseLong(unit == 1 ? text : text.substring(0, text.length() - 1)) * unit;
+    }
+
+    //----------------------------------------------------------------------------------------------
+
+    private static byte[] text(Random random, int length) {
+        var bytes = new byte[length];
+        var i = 0;
+        while (i < length) {
+            var word = WORDS[random.nextInt(WORDS.length)];
+            for (var j = 0; j < word.length() && i < length; j++) {
+                bytes[i++] = (byte) word.charAt(j);
+            }
+            if (i < length) {
+                bytes[i++] = (byte) (random.nextInt(8) == 0 ? '\n' : ' ');
+            }
+        }
+        return bytes;
+    }
+
+    /** An extra field with an unknown header ID and {@code length} random bytes. */
+    private static byte[] extra(Random random, int length) {
+        var extra = new byte[4 + length];
+        random.nextBytes(extra);
+        extra[0] = (byte) 0xCA;
+        extra[1] = (byte) 0xFE;
+        extra[2] = (byte) (length & 0xFF);
+        extra[3] = (byte) (length >> 8);
+        return extra;
+    }
+
+    private static void stored(ZipOutputStream zip, ZipEntry entry, byte[] data) throws IOException {
+        var crc = new CRC32();
+        crc.update(data);
+        entry.setMethod(ZipEntry.STORED);
+        entry.setSize(data.length);
+        entry.setCompressedSize(data.length);
+        entry.setCrc(crc.getValue());
+        zip.putNextEntry(entry);
+        zip.write(data);
+        zip.closeEntry();
+    }
+
+    /** CRC of {@code block} repeated up to {@code size} bytes. */
+    private static long crc(byte[] block, long size) {
+        var crc = new CRC32();
+        for (var done = 0L; done < size; done += block.length) {
+            crc.update(block, 0, (int) Math.min(block.length, size - done));
+        }
+        return crc.getValue();
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright: Carlos F. Heuberger. All rights reserved.
+ *
+ */
+package cfh.zipinfo;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * The {@link RandomAccessInput} backends reading the central directory, building its index and
+ * walking all records.
+ *
+ * @author Carlos F. Heuberger, 2026-10-17
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class InputBenchmark {
+
+    @Param
+    public RandomAccessInput.Mode mode;
+
+    @Benchmark
+    public void directory(ArchiveState archive, Blackhole blackhole) throws IOException {
+        try (var input = RandomAccessInput.open(archive.file, mode)) {
+            for (var entry : CentralDirectory.read(input)) {
+                blackhole.consume(entry);
+            }
+        }
+    }
+
+    @Benchmark
+    public DirectoryIndex index(ArchiveState archive) throws IOException {
+        try (var input = RandomAccessInput.open(archive.file, mode)) {
+            return DirectoryIndex.build(CentralDirectory.read(input));
+        }
+    }
+
+    @Benchmark
+    public void walk(ArchiveState archive, Blackhole blackhole) throws IOException {
+        try (var input = RandomAccessInput.open(archive.file, mode);
+             var walker = new RecordWalker(input)) {
+            while (walker.hasNext()) {
+                blackhole.consume(walker.next());
+            }
+        }
+    }
+}
@@ -0,0 +1,258 @@
+/*
+ * Copyright: Carlos F. Heuberger. All rights reserved.
+ *
+ */
+package cfh.zipinfo;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * End-to-end benchmark of the modes of {@link Main} on archives made by the {@link Generator},
+ * catching regressions that only show at production sizes. Each run is a new JVM, its wall time,
+ * peak resident set size, GC count and time and allocated bytes are appended to a tab-separated
+ * results file, labelled with the commit; the median of the runs of two labels can be compared.
+ *
+ * <pre>
+ *   java -cp bench/target/benchmarks.jar cfh.zipinfo.Macro [options] &lt;results&gt;
+ *       --dir=&lt;dir&gt;             where the archives are generated, kept for the next runs (default bench/target/archives)
+ *       --archives=&lt;spec&gt;,...   &lt;entries&gt;x&lt;huge bytes&gt;[K|M|G] (default 1000000x0,10000x6G)
+ *       --modes=&lt;mode&gt;,...      arguments of Main separated by spaces, walk for none (default walk,-d,--verify,--headers,--summary,--check)
+ *       --repeat=&lt;n&gt;           runs of each mode (default 3)
+ *       --jvm=&lt;option&gt;         option of the JVM running Main, repeatable
+ *       --label=&lt;text&gt;         label of the runs (default git describe of the working directory)
+ *   java -cp bench/target/benchmarks.jar cfh.zipinfo.Macro --compare [--threshold=&lt;percent&gt;] &lt;results&gt; &lt;old label&gt; &lt;new label&gt;
+ * </pre>
+ *
+ * @author Carlos F. Heuberger, 2026-10-17
+ *
+ */
+public final class Macro {
+
+    private static final String HEADER = "label\tarchive\tmode\trun\texit\twall ms\tpeak rss KB\tgc count\tgc ms\tallocated MB\tallocation MB/s";
+
+    /** System property with the file {@link Probe} writes the metrics to. */
+    private static final String METRICS = "macro.metrics";
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length > 0 && args[0].equals("--compare")) {
+            var threshold = 10.0;
+            var i = 1;
+            if (i < args.length && args[i].startsWith("--threshold=")) {
+                threshold = Double.parseDouble(args[i++].substring(12));
+            }
+            if (args.length - i != 3)
+                usage();
+            System.exit(compare(Path.of(args[i]), args[i + 1], args[i + 2], threshold, System.out) ? 0 : 1);
+        }
+
+        var directory = Path.of("bench", "target", "archives");
+        var archives = "1000000x0,10000x6G";
+        var modes = "walk,-d,--verify,--headers,--summary,--check";
+        var repeat = 3;
+        var jvm = new ArrayList<String>();
+        String label = null;
+        Path results = null;
+        for (var arg : args) {
+            if (arg.startsWith("--dir=")) {
+                directory = Path.of(arg.substring(6));
+            } else if (arg.startsWith("--archives=")) {
+                archives = arg.substring(11);
+            } else if (arg.startsWith("--modes=")) {
+                modes = arg.substring(8);
+            } else if (arg.startsWith("--repeat=")) {
+                repeat = Integer.parseInt(arg.substring(9));
+            } else if (arg.startsWith("--jvm=")) {
+                jvm.add(arg.substring(6));
+            } else if (arg.startsWith("--label=")) {
+                label = arg.substring(8);
+            } else if (arg.startsWith("--") || results != null) {
+                usage();
+            } else {
+                results = Path.of(arg);
+            }
+        }
+        if (results == null)
+            usage();
+        if (label == null) {
+            label = describe();
+        }
+
+        if (!Files.exists(results)) {
+            Files.writeString(results, HEADER + System.lineSeparator(), StandardCharsets.UTF_8);
+        }
+        for (var spec : archives.split(",")) {
+            var parts = spec.split("x", 2);
+            var entries = Integer.parseInt(parts[0]);
+            var huge = parts.length > 1 ? Generator.bytes(parts[1]) : 0;
+            System.out.printf("Archive %s...%n", spec);
+            var archive = Generator.archive(directory, entries, huge, Generator.SEED);
+            for (var mode : modes.split(",")) {
+                for (var run = 1; run <= repeat; run++) {
+                    var line = run(jvm, mode, archive);
+                    var record = "%s\t%s\t%s\t%d\t%s".formatted(label, spec, mode, run, line);
+                    System.out.println(record);
+                    Files.writeString(results, record + System.lineSeparator(), StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+                }
+            }
+        }
+    }
+
+    //----------------------------------------------------------------------------------------------
+
+    /** Runs {@code mode} in a new JVM, returns its exit code and metrics, tab separated. */
+    private static String run(List<String> jvm, String mode, Path archive) throws IOException, InterruptedException {
+        var metrics = Files.createTempFile("macro", ".txt");
+        try {
+            var command = new ArrayList<String>();
+            command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+            command.addAll(jvm);
+            command.add("-D" + METRICS + "=" + metrics);
+            command.add("-cp");
+            command.add(System.getProperty("java.class.path"));
+            command.add(Probe.class.getName());
+            if (!mode.equals("walk")) {
+                command.addAll(Arrays.asList(mode.split(" +")));
+            }
+            command.add(archive.toString());
+            var start = System.nanoTime();
+            var process = new ProcessBuilder(command)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+            var exit = process.waitFor();
+            var wall = (System.nanoTime() - start) / 1e6;
+            var values = Files.readString(metrics).strip().split(" ");
+            if (values.length != 4)
+                return "%d\t%.0f\t\t\t\t\t".formatted(exit, wall);
+            var allocated = Long.parseLong(values[3]) / (1024.0 * 1024.0);
+            return "%d\t%.0f\t%s\t%s\t%s\t%.1f\t%.1f".formatted(exit, wall, values[0], values[1], values[2], allocated, allocated * 1000 / wall);
+        } finally {
+            Files.deleteIfExists(metrics);
+        }
+    }
+
+    /** Prints the medians of the runs of two labels, returns {@code false} if a wall time or peak RSS got worse than {@code threshold} percent. */
+    private static boolean compare(Path results, String before, String after, double threshold, PrintStream out) throws IOException {
+        var old = medians(results, before);
+        var now = medians(results, after);
+        var ok = true;
+        out.printf("%-20s %-24s %29s %29s %29s %29s%n", "archive", "mode", "wall ms", "peak rss KB", "gc ms", "allocated MB");
+        for (var entry : now.entrySet()) {
+            var previous = old.get(entry.getKey());
+            if (previous == null)
+                continue;
+            var values = entry.getValue();
+            var line = new StringBuilder("%-20s %-24s".formatted(entry.getKey().get(0), entry.getKey().get(1)));
+            for (var i = 0; i < values.length; i++) {
+                var change = previous[i] == 0 ? 0 : 100 * (values[i] - previous[i]) / previous[i];
+                var worse = i < 2 && change > threshold;
+                ok &= !worse;
+                line.append(" %10.0f %10.0f %+5.1f%%%s".formatted(previous[i], values[i], change, worse ? "!" : " "));
+            }
+            out.println(line);
+        }
+        return ok;
+    }
+
+    /** Median of wall time, peak RSS, GC time and allocated MB of each archive and mode of {@code label}. */
+    private static Map<List<String>, double[]> medians(Path results, String label) throws IOException {
+        var columns = new int[] { 5, 6, 8, 9 };
+        var runs = new LinkedHashMap<List<String>, List<double[]>>();
+        for (var line : Files.readAllLines(results, StandardCharsets.UTF_8)) {
+            var fields = line.split("\t", -1);
+            if (fields.length <= 9 || !fields[0].equals(label) || !fields[4].equals("0") || fields[6].isEmpty())
+                continue;
+            var values = new double[columns.length];
+            for (var i = 0; i < columns.length; i++) {
+                values[i] = Double.parseDouble(fields[columns[i]]);
+            }
+            runs.computeIfAbsent(List.of(fields[1], fields[2]), k -> new ArrayList<>()).add(values);
+        }
+        var medians = new LinkedHashMap<List<String>, double[]>();
+        runs.forEach((key, list) -> {
+            var median = new double[columns.length];
+            for (var i = 0; i < columns.length; i++) {
+                var column = i;
+                var sorted = list.stream().mapToDouble(values -> values[column]).sorted().toArray();
+                median[i] = sorted[sorted.length / 2];
+            }
+            medians.put(key, median);
+        });
+        return medians;
+    }
+
+    /** The {@code git describe} of the working directory, {@code -} if not available. */
+    private static String describe() {
+        try {
+            var process = new ProcessBuilder("git", "describe", "--always", "--dirty")
+                .redirectError(ProcessBuilder.Redirect.DISCARD)
+                .start();
+            var text = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8).strip();
+            return process.waitFor() == 0 && !text.isEmpty() ? text : "-";
+        } catch (IOException ex) {
+            return "-";
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return "-";
+        }
+    }
+
+    private static void usage() {
+        System.err.println("Arguments: [--dir=<dir>] [--archives=<entries>x<huge>,...] [--modes=<mode>,...] [--repeat=<n>] [--jvm=<option>]... [--label=<text>] <results>");
+        System.err.println("       |   --compare [--threshold=<percent>] <results> <old label> <new label>");
+        System.exit(1);
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Runs {@link Main} and, when the JVM exits, writes the peak RSS in KB, GC count, GC time in ms
+     * and allocated bytes, separated by spaces, to the file given by the system property
+     * {@value Macro#METRICS}. The peak RSS is read from {@code /proc}, -1 if not on Linux.
+     */
+    public static final class Probe {
+        public static void main(String[] args) {
+            var file = Path.of(System.getProperty(METRICS));
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                var count = 0L;
+                var time = 0L;
+                for (var gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+                    count += Math.max(0, gc.getCollectionCount());
+                    time += Math.max(0, gc.getCollectionTime());
+                }
+                var threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+                var allocated = threads.getTotalThreadAllocatedBytes();
+                try {
+                    Files.writeString(file, "%d %d %d %d".formatted(peak(), count, time, allocated));
+                } catch (IOException ex) {
+                    ex.printStackTrace();
+                }
+            }));
+            Main.main(args);
+        }
+
+        /** VmHWM of {@code /proc/self/status} in KB. */
+        private static long peak() {
+            try {
+                for (var line : Files.readAllLines(Path.of("/proc/self/status"))) {
+                    if (line.startsWith("VmHWM:"))
+                        return Long.parseLong(line.substring(6).replace("kB", "").strip());
+                }
+            } catch (IOException | NumberFormatException ex) {
+                // not available
+            }
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright: Carlos F. Heuberger. All rights reserved.
+ *
+ */
+package cfh.zipinfo;
+
+import static java.util.Objects.*;
+
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Compares the central directories of two archives: entries are added, removed or changed in
+ * their CRC, sizes, method, time or extra field.
+ *
+ * <p>The entries are joined on their raw name bytes using a hash table of the entries of the old
+ * archive, an open addressing array of entry numbers; names are only decoded for the entries
+ * reported. Entries with the same name are matched in the order of the directories.
+ *
+ * @author Carlos F. Heuberger, 2026-10-17
+ *
+ */
+public final class ArchiveDiff {
+
+    public record Summary(int added, int removed, int changed, int unchanged) {
+        @Override
+        public String toString() {
+            return "%d added, %d removed, %d changed, %d unchanged".formatted(added, removed, changed, unchanged);
+        }
+    }
+
+    private final PrintStream out;
+
+    /** @param out where the differences are written, one line per entry */
+    public ArchiveDiff(PrintStream out) {
+        this.out = requireNonNull(out);
+    }
+
+    /**
+     * Writes the entries of {@code next} added or changed compared to {@code previous} in the order
+     * of {@code next}, then the entries removed in the order of {@code previous}.
+     */
+    public Summary compare(DirectoryIndex previous, DirectoryIndex next) {
+        var table = new Table(previous);
+        var matched = new boolean[previous.size()];
+        var added = 0;
+        var changed = 0;
+        var unchanged = 0;
+        for (var i = 0; i < next.size(); i++) {
+            var j = table.find(next.nameBuffer(i), matched);
+            if (j == -1) {
+                out.printf("+ %s%n", next.name(i));
+                added += 1;
+            } else {
+                matched[j] = true;
+                var changes = changes(previous, j, next, i);
+                if (changes.isEmpty()) {
+                    unchanged += 1;
+                } else {
+                    out.printf("~ %s: %s%n", next.name(i), String.join(", ", changes));
+                    changed += 1;
+                }
+            }
+        }
+        var removed = 0;
+        for (var j = 0; j < previous.size(); j++) {
+            if (!matched[j]) {
+                out.printf("- %s%n", previous.name(j));
+                removed += 1;
+            }
+        }
+        return new Summary(added, removed, changed, unchanged);
+    }
+
+    //----------------------------------------------------------------------------------------------
+
+    private static ArrayList<String> changes(DirectoryIndex previous, int j, DirectoryIndex next, int i) {
+        var changes = new ArrayList<String>(0);
+        if (previous.crc(j) != next.crc(i)) {
+            changes.add("CRC %s -> %s".formatted(Format.hex4(previous.crc(j)), Format.hex4(next.crc(i))));
+        }
+        if (previous.original(j) != next.original(i)) {
+            changes.add("size %d -> %d".formatted(previous.original(j), next.original(i)));
+        }
+        if (previous.compressed(j) != next.compressed(i)) {
+            changes.add("compressed %d -> %d".formatted(previous.compressed(j), next.compressed(i)));
+        }
+        if (previous.method(j) != next.method(i)) {
+            changes.add("method %d -> %d".formatted(previous.method(j), next.method(i)));
+        }
+        if (previous.dateTime(j) != next.dateTime(i)) {
+            changes.add("time %s -> %s".formatted(dateTime(previous.dateTime(j)), dateTime(next.dateTime(i))));
+        }
+        if (!previous.extraBuffer(j).equals(next.extraBuffer(i))) {
+            changes.add("extra %d -> %d bytes".formatted(previous.extraLength(j), next.extraLength(i)));
+        }
+        return changes;
+    }
+
+    /** MS-DOS date and time as {@code yyyy-mm-dd hh:mm:ss}. */
+    private static String dateTime(int value) {
+        var date = value >>> 16;
+        var time = value & 0xFFFF;
+        return "%04d-%02d-%02d %02d:%02d:%02d".formatted(
+            1980 + (date >> 9), (date >> 5) & 0x0F, date & 0x1F,
+            time >> 11, (time >> 5) & 0x3F, 2 * (time & 0x1F));
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /** Open addressing hash table of entry numbers by raw name, linear probing. */
+    private static final class Table {
+        private final DirectoryIndex index;
+        private final int[] slots;
+        private final int mask;
+
+        Table(DirectoryIndex index) {
+            this.index = index;
+            var capacity = Integer.highestOneBit(Math.max(2, 2 * index.size() - 1)) << 1;
+            slots = new int[capacity];
+            mask = capacity - 1;
+            Arrays.fill(slots, -1);
+            for (var i = 0; i < index.size(); i++) {
+                var slot = DirectoryIndex.hash(index.nameBuffer(i)) & mask;
+                while (slots[slot] != -1) {
+                    slot = (slot + 1) & mask;
+                }
+                slots[slot] = i;
+            }
+        }
+
+        /** The first entry not yet matched with the given name, -1 if none. */
+        int find(ByteBuffer name, boolean[] matched) {
+            var slot = DirectoryIndex.hash(name) & mask;
+            int entry;
+            while ((entry = slots[slot]) != -1) {
+                if (!matched[entry] && index.nameBuffer(entry).equals(name))
+                    return entry;
+                slot = (slot + 1) & mask;
+            }
+            return -1;
+        }
+    }
+}
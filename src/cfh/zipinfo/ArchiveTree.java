@@ -0,0 +1,172 @@
+/*
+ * Copyright: Carlos F. Heuberger. All rights reserved.
+ *
+ */
+package cfh.zipinfo;
+
+import static java.util.Objects.*;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Lists the entries of an archive as a tree, descending into entries that are archives themselves.
+ *
+ * <p>Nothing is extracted to disk: a stored nested archive is read as a slice of its parent input,
+ * a mapped slice if the parent is mapped; a deflated one is inflated into memory if its size does
+ * not exceed the limit. Archives nested deeper than {@value #DEPTH} levels are not opened.
+ *
+ * @author Carlos F. Heuberger, 2026-10-17
+ *
+ */
+public final class ArchiveTree {
+
+    /** Default limit of the size of a deflated nested archive inflated into memory. */
+    public static final long LIMIT = 64L * 1024 * 1024;
+
+    /** Maximum nesting level opened, protects against archives containing themselves. */
+    public static final int DEPTH = 16;
+
+    /** Extensions of deflated entries inflated to be inspected. */
+    private static final List<String> EXTENSIONS = List.of(".zip", ".jar", ".war", ".ear");
+
+    private static final String INDENT = "    ";
+
+    private final PrintStream out;
+    private final long limit;
+
+    /**
+     * @param out where the tree is written
+     * @param limit maximum size of a deflated nested archive inflated into memory
+     */
+    public ArchiveTree(PrintStream out, long limit) {
+        this.out = requireNonNull(out);
+        this.limit = Math.min(limit, Integer.MAX_VALUE - 8);
+    }
+
+    /** Writes the tree of the archive read from {@code input}, {@code name} is the root. */
+    public void print(String name, RandomAccessInput input) throws IOException {
+        out.println(name);
+        archive(input, 1);
+    }
+
+    //----------------------------------------------------------------------------------------------
+
+    private void archive(RandomAccessInput input, int depth) throws IOException {
+        var index = DirectoryIndex.build(CentralDirectory.read(input));
+        var indent = INDENT.repeat(depth);
+        for (var i = 0; i < index.size(); i++) {
+            out.printf("%s%s  %s %d -> %d%n", indent, index.name(i), method(index.method(i)), index.compressed(i), index.original(i));
+            try {
+                var nested = nested(input, index, i, indent + INDENT);
+                if (nested == null)
+                    continue;
+                try (nested) {
+                    if (depth < DEPTH) {
+                        archive(nested, depth + 1);
+                    } else {
+                        out.printf("%s%s! not opened, nested more than %d levels%n", indent, INDENT, DEPTH);
+                    }
+                }
+            } catch (IOException | DataFormatException ex) {
+                out.printf("%s%s! %s%n", indent, INDENT, ex);
+            }
+        }
+    }
+
+    /** Input of the entry if it is a nested archive, {@code null} if not or not opened. */
+    private RandomAccessInput nested(RandomAccessInput input, DirectoryIndex index, int entry, String indent) throws IOException, DataFormatException {
+        var method = index.method(entry);
+        if (method != RecordWalker.METHOD_STORED && method != RecordWalker.METHOD_DEFLATED)
+            return null;
+        var archive = isArchive(index.nameBytes(entry));
+        if (!archive && method != RecordWalker.METHOD_STORED)
+            return null;
+
+        var offset = index.offset(entry);
+        input.seek(offset);
+        if (input.readInt() != EntryType.LocalFileHeader.signature())
+            throw new IOException("no local file header at 0x%x".formatted(offset));
+        input.seek(offset + 26);
+        var start = offset + Verifier.LOCAL_HEADER_SIZE + Short.toUnsignedInt(input.reaShort()) + Short.toUnsignedInt(input.reaShort());
+        var compressed = index.compressed(entry);
+
+        if (method == RecordWalker.METHOD_STORED) {
+            if (!archive) {
+                // unknown extension, only if the data starts like an archive
+                if (compressed < 4)
+                    return null;
+                input.seek(start);
+                var signature = input.readInt();
+                if (signature != EntryType.LocalFileHeader.signature() && signature != EntryType.EndOfCentralDirectory.signature())
+                    return null;
+            }
+            if ((index.flags(entry) & 0x01) != 0)
+                throw new IOException("encrypted");
+            return input.slice(start, compressed);
+        }
+
+        if ((index.flags(entry) & 0x01) != 0)
+            throw new IOException("encrypted");
+        var original = index.original(entry);
+        if (original > limit) {
+            out.printf("%s! not opened, %d bytes exceed the limit of %d to inflate%n", indent, original, limit);
+            return null;
+        }
+        return RandomAccessInput.wrap(inflate(input, start, compressed, (int) original), 0);
+    }
+
+    /** Inflates the deflated data into an array of the expected size. */
+    private static byte[] inflate(RandomAccessInput input, long start, long length, int size) throws IOException, DataFormatException {
+        var bytes = new byte[size];
+        var buffer = new byte[(int) Math.min(RandomAccessInput.BLOCK_SIZE, length)];
+        var inflater = new Inflater(true);
+        try {
+            input.seek(start);
+            var remaining = length;
+            var count = 0;
+            while (!inflater.finished()) {
+                if (inflater.needsInput()) {
+                    if (remaining == 0)
+                        throw new DataFormatException("deflated data incomplete");
+                    var chunk = (int) Math.min(buffer.length, remaining);
+                    input.readFully(buffer, 0, chunk);
+                    remaining -= chunk;
+                    inflater.setInput(buffer, 0, chunk);
+                }
+                if (count == size) {
+                    // only the end of the stream is missing
+                    if (inflater.inflate(new byte[1]) != 0)
+                        throw new DataFormatException("inflated more than %d bytes".formatted(size));
+                } else {
+                    count += inflater.inflate(bytes, count, size - count);
+                }
+                if (inflater.needsDictionary())
+                    throw new DataFormatException("needs dictionary");
+            }
+            if (count != size)
+                throw new DataFormatException("inflated %d bytes, expected %d".formatted(count, size));
+            return bytes;
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static boolean isArchive(byte[] name) {
+        var text = new String(name, StandardCharsets.ISO_8859_1).toLowerCase(Locale.ROOT);
+        return EXTENSIONS.stream().anyMatch(text::endsWith);
+    }
+
+    private static String method(int method) {
+        return switch (method) {
+            case RecordWalker.METHOD_STORED -> "stored";
+            case RecordWalker.METHOD_DEFLATED -> "deflated";
+            default -> "method " + method;
+        };
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright: Carlos F. Heuberger. All rights reserved.
+ *
+ */
+package cfh.zipinfo;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+/**
+ * Processes many archives, each on its own virtual thread with a limit on the number of files open
+ * or waiting to be written at the same time. The output of each archive is collected and written
+ * in the order of the archives, never interleaved.
+ *
+ * @author Carlos F. Heuberger, 2026-10-17
+ *
+ */
+public abstract class Batch {
+
+    private Batch() {
+        throw new AssertionError("should not be instanciated");
+    }
+
+    /** Extensions of the files searched in directories. */
+    private static final List<String> EXTENSIONS = List.of(".zip", ".jar", ".war");
+
+    @FunctionalInterface
+    public interface Action {
+        /** Processes one file writing to {@code out}, returns {@code false} if failed. */
+        boolean run(File file, PrintStream out);
+    }
+
+    /**
+     * Expands the given paths: directories are searched recursively for archives, {@code @file}
+     * arguments are replaced by the paths listed in that file, one per line.
+     */
+    public static List<File> files(List<String> paths) throws IOException {
+        var files = new ArrayList<File>();
+        for (var path : paths) {
+            if (path.startsWith("@")) {
+                try (var lines = Files.lines(Path.of(path.substring(1)))) {
+                    files.addAll(files(lines.map(String::strip).filter(line -> !line.isEmpty()).toList()));
+                }
+            } else if (Files.isDirectory(Path.of(path))) {
+                try (Stream<Path> tree = Files.walk(Path.of(path))) {
+                    tree
+                    .filter(Files::isRegularFile)
+                    .filter(Batch::isArchive)
+                    .sorted()
+                    .map(Path::toFile)
+                    .forEach(files::add);
+                }
+            } else {
+                files.add(new File(path));
+            }
+        }
+        return files;
+    }
+
+    /**
+     * Runs {@code action} for each file on a virtual thread and writes the outputs to
+     * {@code System.out} in the order of {@code files}. At most {@code open} files are processed or
+     * have their output waiting to be written at the same time, so a slow archive holds back the
+     * following ones instead of letting their outputs pile up in memory.
+     * Returns {@code false} if any action failed.
+     */
+    public static boolean run(List<File> files, int open, Action action) {
+        var ok = true;
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            var outputs = new ArrayList<Future<Output>>(files.size());
+            var written = 0;
+            for (var file : files) {
+                while (outputs.size() - written >= open) {
+                    ok &= write(files, outputs, written++);
+                }
+                outputs.add(executor.submit(() -> {
+                    var bytes = new ByteArrayOutputStream();
+                    var out = new PrintStream(bytes, false, StandardCharsets.UTF_8);
+                    var result = action.run(file, out);
+                    out.flush();
+                    return new Output(bytes, result);
+                }));
+            }
+            while (written < outputs.size()) {
+                ok &= write(files, outputs, written++);
+            }
+            System.out.flush();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        return ok;
+    }
+
+    //----------------------------------------------------------------------------------------------
+
+    /** Waits for the output of file {@code i} and writes it, returns {@code false} if failed. */
+    private static boolean write(List<File> files, List<Future<Output>> outputs, int i) throws InterruptedException {
+        try {
+            var output = outputs.get(i).get();
+            output.bytes.writeTo(System.out);
+            return output.ok;
+        } catch (ExecutionException ex) {
+            System.out.printf("%s: ", files.get(i));
+            ex.getCause().printStackTrace(System.out);
+            return false;
+        } catch (IOException ex) {
+            ex.printStackTrace();
+            return false;
+        } finally {
+            outputs.set(i, null);
+        }
+    }
+
+    private static boolean isArchive(Path path) {
+        var name = path.getFileName().toString().toLowerCase(Locale.ROOT);
+        return EXTENSIONS.stream().anyMatch(name::endsWith);
+    }
+
+    private record Output(ByteArrayOutputStream bytes, boolean ok) {
+    }
+}
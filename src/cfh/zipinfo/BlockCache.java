@@ -0,0 +1,113 @@
+/*
+ * Copyright: Carlos F. Heuberger. All rights reserved.
+ *
+ */
+package cfh.zipinfo;
+
+import static java.util.Objects.*;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.SeekableByteChannel;
+import java.util.LinkedHashMap;
+
+/**
+ * Least recently used blocks of a channel, read ahead so that many small reads become few large
+ * ones: a missing block is read together with the following missing blocks, up to the read-ahead
+ * which doubles while the blocks are read sequentially and is reset by a jump.
+ *
+ * @author Carlos F. Heuberger, 2026-10-17
+ *
+ */
+final class BlockCache implements AutoCloseable {
+
+    private final SeekableByteChannel channel;
+    private final int blockSize;
+    private final int capacity;
+    private final int maxAhead;
+    private final long size;
+    private final LinkedHashMap<Long, ByteBuffer> blocks = new LinkedHashMap<>(16, 0.75f, true);
+
+    private int ahead = 1;
+    private long next = -1;  // block following the last run read
+    private long reads = 0;
+
+    /**
+     * @param blockSize size of each block
+     * @param capacity maximum number of blocks cached
+     * @param maxAhead maximum number of blocks read at once
+     */
+    BlockCache(SeekableByteChannel channel, int blockSize, int capacity, int maxAhead) throws IOException {
+        this.channel = requireNonNull(channel);
+        this.blockSize = blockSize;
+        this.capacity = capacity;
+        this.maxAhead = Math.min(maxAhead, capacity);
+        this.size = channel.size();
+    }
+
+    long size() {
+        return size;
+    }
+
+    int blockSize() {
+        return blockSize;
+    }
+
+    /** Number of reads from the channel. */
+    long reads() {
+        return reads;
+    }
+
+    /** The little-endian block {@code number}, empty at end of the channel. */
+    ByteBuffer block(long number) throws IOException {
+        var block = blocks.get(number);
+        if (block != null)
+            return block.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        var start = number * blockSize;
+        if (start >= size)
+            return ByteBuffer.allocate(0);
+
+        ahead = (number == next) ? Math.min(2 * ahead, maxAhead) : 1;
+        var count = 1;
+        while (count < ahead && start + (long) count * blockSize < size && !blocks.containsKey(number + count)) {
+            count += 1;
+        }
+        var run = ByteBuffer.allocate((int) Math.min((long) count * blockSize, size - start));
+        try {
+            channel.position(start);
+            while (run.hasRemaining()) {
+                reads += 1;
+                if (channel.read(run) == -1)
+                    break;
+            }
+        } catch (IOException ex) {
+            throw RandomAccessInput.exception(start, ex);
+        }
+        run.flip();
+        // the channel ended before its size, the file shrank or the server sent a short body
+        if (run.limit() == 0)
+            throw new EOFException("at %d (%1$x), size %d".formatted(start, size));
+        next = number + count;
+
+        for (var i = 0; i < count; i++) {
+            var from = i * blockSize;
+            if (from >= run.limit())
+                break;
+            blocks.put(number + i, run.slice(from, Math.min(blockSize, run.limit() - from)));
+        }
+        var iterator = blocks.values().iterator();
+        while (blocks.size() > capacity) {
+            iterator.next();
+            iterator.remove();
+        }
+        return run.slice(0, Math.min(blockSize, run.limit())).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    @Override
+    public void close() throws IOException {
+        blocks.clear();
+        channel.close();
+    }
+}
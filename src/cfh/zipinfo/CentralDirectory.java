@@ -0,0 +1,184 @@
+/*
+ * Copyright: Carlos F. Heuberger. All rights reserved.
+ *
+ */
+package cfh.zipinfo;
+
+import static java.util.Objects.*;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * The central directory of a ZIP file, located by scanning backwards for the End of Central
+ * Directory record and then loaded with one bulk read. The file headers are only decoded while
+ * iterating, the file data is never read.
+ *
+ * @author Carlos F. Heuberger, 2026-10-17
+ *
+ */
+public class CentralDirectory implements Iterable<Entry> {
+
+    /** Size of the End of Central Directory record without comment. */
+    static final int END_SIZE = 22;
+
+    /** Maximum size of the ZIP file comment. */
+    static final int MAX_COMMENT = 0xFFFF;
+
+    /** Size of the Zip64 End of Central Directory Locator. */
+    static final int LOCATOR_SIZE = 20;
+
+    private final Entry end;
+    private final Entry zip64;
+    private final long offset;
+    private final byte[] records;
+
+    private CentralDirectory(Entry end, Entry zip64, long offset, byte[] records) {
+        this.end = requireNonNull(end);
+        this.zip64 = zip64;
+        this.offset = offset;
+        this.records = requireNonNull(records);
+    }
+
+    /** The End of Central Directory record. */
+    public Entry end() {
+        return end;
+    }
+
+    /** The Zip64 End of Central Directory record, {@code null} if not present. */
+    public Entry zip64() {
+        return zip64;
+    }
+
+    /** Position of the first file header. */
+    public long offset() {
+        return offset;
+    }
+
+    /** Size in bytes of all file headers. */
+    public long size() {
+        return records.length;
+    }
+
+    /** The raw file headers, little-endian and read-only, index 0 is at {@link #offset()}. */
+    ByteBuffer records() {
+        return ByteBuffer.wrap(records).asReadOnlyBuffer().order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /** Number of file headers as given in the End of Central Directory record. */
+    public long count() {
+        return (zip64 != null ? zip64 : end).number("Entries");
+    }
+
+    /** The file header at {@code position}, as given by {@link DirectoryIndex#header(int)}. */
+    public Entry entry(long position) throws IOException {
+        if (position < offset || position >= offset + records.length)
+            throw new IOException("at %d (%1$x): not in central directory".formatted(position));
+        var input = RandomAccessInput.wrap(records, offset);
+        input.seek(position);
+        return Entry.read(input);
+    }
+
+    @Override
+    public Iterator<Entry> iterator() {
+        final RandomAccessInput input;
+        try {
+            input = RandomAccessInput.wrap(records, offset);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                try {
+                    return input.position() < input.length();
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            }
+            @Override
+            public Entry next() {
+                if (!hasNext())
+                    throw new NoSuchElementException();
+                try {
+                    return Entry.read(input);
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            }
+        };
+    }
+
+    //==============================================================================================
+
+    public static CentralDirectory read(RandomAccessInput input) throws IOException {
+        var position = findEnd(input);
+        input.seek(position);
+        var end = Entry.read(input);
+
+        var zip64 = readZip64(input, position);
+        var last = end;
+        if (zip64 != null) {
+            last = zip64;
+            position = zip64.position();
+        }
+        var offset = last.number("Directory offset");
+        var size = last.number("Directory size");
+        if (offset + size > position)
+            throw new IOException("central directory (0x%x + %d) overlaps end record at 0x%x".formatted(offset, size, position));
+        if (size > Integer.MAX_VALUE)
+            throw new IOException("central directory too large: %d".formatted(size));
+        input.seek(offset);
+        var records = input.readBytes((int) size);
+        return new CentralDirectory(end, zip64, offset, records);
+    }
+
+    /**
+     * The Zip64 End of Central Directory record pointed to by the locator just before the End of
+     * Central Directory record at {@code position}, {@code null} if there is no locator.
+     */
+    private static Entry readZip64(RandomAccessInput input, long position) throws IOException {
+        if (position < LOCATOR_SIZE)
+            return null;
+        input.seek(position - LOCATOR_SIZE);
+        if (input.readInt() != EntryType.Zip64EndOfCentralDirectoryLocator.signature())
+            return null;
+        input.seek(position - LOCATOR_SIZE);
+        var locator = Entry.read(input);
+        var offset = locator.number("Zip64 offset");
+        if (offset < 0 || offset >= locator.position())
+            throw new IOException("invalid Zip64 offset: 0x%x".formatted(offset));
+        input.seek(offset);
+        var zip64 = Entry.read(input);
+        if (zip64.type() != EntryType.Zip64EndOfCentralDirectory)
+            throw new IOException("expected %s at 0x%x, found %s".formatted(
+                EntryType.Zip64EndOfCentralDirectory, offset, zip64.type()));
+        return zip64;
+    }
+
+    /**
+     * Position of the End of Central Directory record. The record is searched backwards in one
+     * block containing the maximal comment size, a candidate must have a comment length that fits
+     * in the file.
+     */
+    static long findEnd(RandomAccessInput input) throws IOException {
+        var length = input.length();
+        var tail = (int) Math.min(length, END_SIZE + MAX_COMMENT);
+        var start = length - tail;
+        input.seek(start);
+        var buffer = ByteBuffer.wrap(input.readBytes(tail)).order(ByteOrder.LITTLE_ENDIAN);
+        var signature = EntryType.EndOfCentralDirectory.signature();
+        for (var i = tail - END_SIZE; i >= 0; i--) {
+            if (buffer.getInt(i) == signature) {
+                var comment = Short.toUnsignedInt(buffer.getShort(i + END_SIZE - 2));
+                if (i + END_SIZE + comment <= tail)
+                    return start + i;
+            }
+        }
+        throw new IOException("End of Central Directory not found");
+    }
+}
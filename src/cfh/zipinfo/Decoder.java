@@ -0,0 +1,235 @@
+/*
+ * Copyright: Carlos F. Heuberger. All rights reserved.
+ *
+ */
+package cfh.zipinfo;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Layout of the fields of an {@link EntryType}, computed once: the offset of each field in the
+ * fixed part of the record and, for the variable length fields following it, the field holding
+ * their length.
+ *
+ * <p>A record is read with one bulk read of the fixed part, kept as is; numeric fields are decoded
+ * from it by offset when asked for, without boxing. Only the variable length fields are read
+ * separately, and {@link Field}s are only created for printing.
+ *
+ * @author Carlos F. Heuberger, 2026-10-17
+ *
+ */
+final class Decoder {
+
+    private static final VarHandle SHORT = MethodHandles.byteArrayViewVarHandle(short[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final VarHandle INT = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final VarHandle LONG = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    // kinds of fields
+    private static final int CONSTANT = 0;
+    private static final int TWO = 1;
+    private static final int FOUR = 2;
+    private static final int FOUR_UNSIGNED = 3;
+    private static final int EIGHT = 4;
+    private static final int TEXT = 5;
+    private static final int BYTES = 6;
+    private static final int REMAINING = 7;
+
+    private final List<FieldType<?>> types;
+    private final int fixed;
+    private final int[] kinds;
+    /** Offset in the fixed part, or the index in the variable fields. */
+    private final int[] offsets;
+    /** Field holding the length of a variable field. */
+    private final int[] lengths;
+    /** Part of the size of {@code Remaining} not in the field. */
+    private final int[] minus;
+    private final long[] constants;
+    private final int flags;
+    private final int variables;
+    private final Map<String, Integer> numbers = new HashMap<>();
+    private final Map<String, Integer> objects = new HashMap<>();
+
+    Decoder(String type, List<FieldType<?>> types) {
+        this.types = List.copyOf(types);
+        var count = types.size();
+        kinds = new int[count];
+        offsets = new int[count];
+        lengths = new int[count];
+        minus = new int[count];
+        constants = new long[count];
+        var offset = 0;
+        var variable = 0;
+        var flags = -1;
+        for (var i = 0; i < count; i++) {
+            var fieldType = types.get(i);
+            kinds[i] = switch (fieldType) {
+                case FieldType.Signature signature -> {
+                    constants[i] = Integer.toUnsignedLong(signature.value());
+                    yield CONSTANT;
+                }
+                case FieldType.TwoBytes two -> TWO;
+                case FieldType.Length length -> TWO;
+                case FieldType.FourBytes four -> FOUR;
+                case FieldType.FourBytesUnsigned four -> FOUR_UNSIGNED;
+                case FieldType.EightBytes eight -> EIGHT;
+                case FieldType.Text text -> {
+                    lengths[i] = length(type, types, i, fieldType.name());
+                    yield TEXT;
+                }
+                case FieldType.Bytes bytes -> {
+                    lengths[i] = length(type, types, i, fieldType.name());
+                    yield BYTES;
+                }
+                case FieldType.Remaining remaining -> {
+                    lengths[i] = index(type, types, i, remaining.size());
+                    minus[i] = remaining.fixed();
+                    yield REMAINING;
+                }
+            };
+            var size = fieldType.width();
+            if (kinds[i] >= TEXT) {
+                offsets[i] = variable++;
+                objects.putIfAbsent(fieldType.name(), i);
+            } else {
+                if (variable > 0)
+                    throw new IllegalArgumentException("%s: fixed field %s after variable length field".formatted(type, fieldType));
+                offsets[i] = offset;
+                offset += size;
+                numbers.putIfAbsent(fieldType.name(), i);
+                if (flags == -1 && kinds[i] == TWO && fieldType.name().equals("Flags")) {
+                    flags = i;
+                }
+            }
+        }
+        this.fixed = offset;
+        this.flags = flags;
+        this.variables = variable;
+    }
+
+    /** Size of the fixed part. */
+    int fixed() {
+        return fixed;
+    }
+
+    /** Number of the first numeric field with given name, -1 if none. */
+    int number(String name) {
+        return numbers.getOrDefault(name, -1);
+    }
+
+    /** Number of the first variable length field with given name, -1 if none. */
+    int object(String name) {
+        return objects.getOrDefault(name, -1);
+    }
+
+    /** Reads the fixed part with one read and then the variable length fields. */
+    Entry read(long position, EntryType type, RandomAccessInput input) throws IOException {
+        var bytes = new byte[fixed];
+        input.readFully(bytes, 0, fixed);
+        Object[] values = null;
+        if (variables > 0) {
+            values = new Object[variables];
+            for (var i = 0; i < kinds.length; i++) {
+                switch (kinds[i]) {
+                    case TEXT -> {
+                        var utf8 = flags != -1 && (value(bytes, flags) & ZipString.FLAG_UTF8) != 0;
+                        values[offsets[i]] = input.readText((int) value(bytes, lengths[i]), utf8);
+                    }
+                    case BYTES -> values[offsets[i]] = input.readBytes((int) value(bytes, lengths[i]));
+                    case REMAINING -> {
+                        var length = value(bytes, lengths[i]) - minus[i];
+                        if (length < 0 || length > Integer.MAX_VALUE)
+                            throw new IOException("invalid %s: %d".formatted(types.get(lengths[i]).name(), length + minus[i]));
+                        values[offsets[i]] = input.readBytes((int) length);
+                    }
+                    default -> {
+                        // in the fixed part
+                    }
+                }
+            }
+        }
+        return new Entry(position, type, bytes, values);
+    }
+
+    /** Unsigned value of the numeric field {@code i}. */
+    long value(byte[] bytes, int i) {
+        var offset = offsets[i];
+        return switch (kinds[i]) {
+            case CONSTANT -> constants[i];
+            case TWO -> Short.toUnsignedLong((short) SHORT.get(bytes, offset));
+            case FOUR, FOUR_UNSIGNED -> Integer.toUnsignedLong((int) INT.get(bytes, offset));
+            case EIGHT -> (long) LONG.get(bytes, offset);
+            default -> throw new IllegalArgumentException("not numeric: " + types.get(i));
+        };
+    }
+
+    /** The variable length field {@code i}. */
+    Object object(Object[] values, int i) {
+        if (kinds[i] < TEXT)
+            throw new IllegalArgumentException("not variable: " + types.get(i));
+        return values[offsets[i]];
+    }
+
+    /** The fields with their values boxed as by the {@link FieldType}. */
+    List<Field<?>> fields(byte[] bytes, Object[] values) {
+        var fields = new ArrayList<Field<?>>(kinds.length);
+        for (var i = 0; i < kinds.length; i++) {
+            var offset = offsets[i];
+            Object value = switch (kinds[i]) {
+                case CONSTANT -> (int) constants[i];
+                case TWO -> (short) SHORT.get(bytes, offset);
+                case FOUR -> (int) INT.get(bytes, offset);
+                case FOUR_UNSIGNED -> Integer.toUnsignedLong((int) INT.get(bytes, offset));
+                case EIGHT -> (long) LONG.get(bytes, offset);
+                default -> values[offset];
+            };
+            fields.add(new Field<>(types.get(i), value));
+        }
+        return fields;
+    }
+
+    /** Encodes values given in the order of the fields as read by {@link #read}, returns the variable fields. */
+    Object[] encode(Object[] values, byte[] bytes) {
+        if (values.length != kinds.length)
+            throw new IllegalArgumentException("%d values for %d fields".formatted(values.length, kinds.length));
+        var objects = variables > 0 ? new Object[variables] : null;
+        for (var i = 0; i < kinds.length; i++) {
+            var offset = offsets[i];
+            var value = values[i];
+            switch (kinds[i]) {
+                case CONSTANT -> { }
+                case TWO -> SHORT.set(bytes, offset, ((Number) value).shortValue());
+                case FOUR, FOUR_UNSIGNED -> INT.set(bytes, offset, ((Number) value).intValue());
+                case EIGHT -> LONG.set(bytes, offset, ((Number) value).longValue());
+                default -> objects[offset] = value;
+            }
+        }
+        return objects;
+    }
+
+    //----------------------------------------------------------------------------------------------
+
+    /** The {@link FieldType.Length} field named {@code name} before field {@code before}. */
+    private static int length(String type, List<FieldType<?>> types, int before, String name) {
+        for (var i = 0; i < before; i++) {
+            if (types.get(i) instanceof FieldType.Length && types.get(i).name().equals(name))
+                return i;
+        }
+        throw new IllegalArgumentException("%s: no length for %s".formatted(type, name));
+    }
+
+    /** The first field named {@code name} before field {@code before}. */
+    private static int index(String type, List<FieldType<?>> types, int before, String name) {
+        for (var i = 0; i < before; i++) {
+            if (types.get(i).name().equals(name))
+                return i;
+        }
+        throw new IllegalArgumentException("%s: no field %s".formatted(type, name));
+    }
+}
@@ -0,0 +1,525 @@
+/*
+ * Copyright: Carlos F. Heuberger. All rights reserved.
+ *
+ */
+package cfh.zipinfo;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.ShortBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Compact, column oriented index of the central directory: one primitive array per header field
+ * and all names, and extra fields, stored in one byte arena each with an offset table. Built
+ * directly from the raw headers without creating an {@link Entry} per header; the values of an
+ * entry are accessed by its ordinal in O(1). Sizes, offset and disk are already resolved using the
+ * Zip64 extra field.
+ *
+ * <p>The columns are buffers, either wrapping heap arrays or views of a mapped index file written
+ * by {@link IndexCache}.
+ *
+ * @author Carlos F. Heuberger, 2026-10-17
+ *
+ */
+public final class DirectoryIndex {
+
+    /** Size of the fixed part of the central directory file header. */
+    static final int HEADER_SIZE = 46;
+
+    private final int size;
+    private final LongBuffer headers;
+    private final LongBuffer offsets;
+    private final LongBuffer compressed;
+    private final LongBuffer original;
+    private final IntBuffer crcs;
+    private final IntBuffer times;
+    private final IntBuffer nameStarts;
+    private final IntBuffer extraStarts;
+    private final ShortBuffer methods;
+    private final ShortBuffer flags;
+    private final ByteBuffer names;
+    private final ByteBuffer extras;
+    /** Hash table of the names, created by the first lookup; racy but always complete when seen. */
+    private volatile int[] slots = null;
+
+    /** Takes over the columns of {@code builder}, only copying those not filled exactly. */
+    private DirectoryIndex(Builder builder) {
+        size = builder.size;
+        headers = LongBuffer.wrap(Builder.trim(builder.headers, size));
+        offsets = LongBuffer.wrap(Builder.trim(builder.offsets, size));
+        compressed = LongBuffer.wrap(Builder.trim(builder.compressed, size));
+        original = LongBuffer.wrap(Builder.trim(builder.original, size));
+        crcs = IntBuffer.wrap(Builder.trim(builder.crcs, size));
+        times = IntBuffer.wrap(Builder.trim(builder.times, size));
+        nameStarts = IntBuffer.wrap(Builder.trim(builder.nameStarts, size + 1));
+        extraStarts = IntBuffer.wrap(Builder.trim(builder.extraStarts, size + 1));
+        methods = ShortBuffer.wrap(Builder.trim(builder.methods, size));
+        flags = ShortBuffer.wrap(Builder.trim(builder.flags, size));
+        names = ByteBuffer.wrap(Builder.trim(builder.names, builder.nameStarts[size]));
+        extras = ByteBuffer.wrap(Builder.trim(builder.extras, builder.extraStarts[size]));
+    }
+
+    /** Index whose columns are views of {@code buffer}, as written by {@link #write(WritableByteChannel)}. */
+    private DirectoryIndex(ByteBuffer buffer) throws IOException {
+        buffer = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        size = buffer.getInt();
+        var namesLength = buffer.getInt();
+        var extrasLength = buffer.getInt();
+        if (size < 0 || namesLength < 0 || extrasLength < 0)
+            throw new IOException("invalid index header");
+        buffer.getInt();
+        try {
+            headers = column(buffer, size * Long.BYTES).asLongBuffer();
+            offsets = column(buffer, size * Long.BYTES).asLongBuffer();
+            compressed = column(buffer, size * Long.BYTES).asLongBuffer();
+            original = column(buffer, size * Long.BYTES).asLongBuffer();
+            crcs = column(buffer, size * Integer.BYTES).asIntBuffer();
+            times = column(buffer, size * Integer.BYTES).asIntBuffer();
+            nameStarts = column(buffer, (size + 1) * Integer.BYTES).asIntBuffer();
+            extraStarts = column(buffer, (size + 1) * Integer.BYTES).asIntBuffer();
+            methods = column(buffer, size * Short.BYTES).asShortBuffer();
+            flags = column(buffer, size * Short.BYTES).asShortBuffer();
+            names = column(buffer, namesLength);
+            extras = column(buffer, extrasLength);
+        } catch (IndexOutOfBoundsException | IllegalArgumentException ex) {
+            throw (IOException) new IOException("truncated index").initCause(ex);
+        }
+    }
+
+    /** Number of entries. */
+    public int size() {
+        return size;
+    }
+
+    /** Position of the central directory file header. */
+    public long header(int index) {
+        return headers.get(index);
+    }
+
+    /** Position of the local file header. */
+    public long offset(int index) {
+        return offsets.get(index);
+    }
+
+    public long compressed(int index) {
+        return compressed.get(index);
+    }
+
+    public long original(int index) {
+        return original.get(index);
+    }
+
+    public int crc(int index) {
+        return crcs.get(index);
+    }
+
+    /** MS-DOS date in the high and time in the low 16 bits. */
+    public int dateTime(int index) {
+        return times.get(index);
+    }
+
+    public int method(int index) {
+        return Short.toUnsignedInt(methods.get(index));
+    }
+
+    public int flags(int index) {
+        return Short.toUnsignedInt(flags.get(index));
+    }
+
+    public int nameLength(int index) {
+        return nameStarts.get(index + 1) - nameStarts.get(index);
+    }
+
+    /** Copy of the raw name bytes. */
+    public byte[] nameBytes(int index) {
+        var bytes = new byte[nameLength(index)];
+        names.get(nameStarts.get(index), bytes);
+        return bytes;
+    }
+
+    /** If the name is encoded in UTF-8 (flag bit 11), otherwise in CP437. */
+    public boolean utf8(int index) {
+        return (flags(index) & ZipString.FLAG_UTF8) != 0;
+    }
+
+    /** The name decoded, only call for names actually used since a string is created each time. */
+    public String name(int index) {
+        return ZipString.decode(nameBuffer(index), utf8(index));
+    }
+
+    /**
+     * Number of the first entry with the given name, -1 if none. The hash table of the raw names
+     * is built by the first lookup.
+     */
+    public int find(String name) {
+        var utf8 = name.getBytes(StandardCharsets.UTF_8);
+        var ascii = utf8.length == name.length();
+        var found = find(ByteBuffer.wrap(utf8), ascii ? null : Boolean.TRUE);
+        if (found == -1 && !ascii) {
+            var cp437 = ZipString.encodeCp437(name);
+            if (cp437 != null) {
+                found = find(ByteBuffer.wrap(cp437), Boolean.FALSE);
+            }
+        }
+        return found;
+    }
+
+    /** Number of the first entry with the given raw name, -1 if none. */
+    int find(ByteBuffer name) {
+        return find(name, null);
+    }
+
+    /** @param utf8 the encoding the entry must have, {@code null} for any */
+    private int find(ByteBuffer name, Boolean utf8) {
+        var table = nameTable();
+        var mask = table.length - 1;
+        var slot = hash(name) & mask;
+        int entry;
+        while ((entry = table[slot]) != -1) {
+            if ((utf8 == null || utf8 == utf8(entry)) && nameBuffer(entry).equals(name))
+                return entry;
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    /** Open addressing table of the entry numbers by raw name, linear probing; same names in directory order. */
+    private int[] nameTable() {
+        var table = slots;
+        if (table == null) {
+            var capacity = Integer.highestOneBit(Math.max(2, 2 * size - 1)) << 1;
+            table = new int[capacity];
+            var mask = capacity - 1;
+            Arrays.fill(table, -1);
+            for (var i = 0; i < size; i++) {
+                var slot = hash(nameBuffer(i)) & mask;
+                while (table[slot] != -1) {
+                    slot = (slot + 1) & mask;
+                }
+                table[slot] = i;
+            }
+            slots = table;
+        }
+        return table;
+    }
+
+    /** Hash of the bytes, with the high bits spread to the low bits used by the mask. */
+    static int hash(ByteBuffer name) {
+        var hash = name.hashCode();
+        return hash ^ (hash >>> 16);
+    }
+
+    /** The raw name bytes, not copied. */
+    ByteBuffer nameBuffer(int index) {
+        return names.slice(nameStarts.get(index), nameLength(index));
+    }
+
+    public int extraLength(int index) {
+        return extraStarts.get(index + 1) - extraStarts.get(index);
+    }
+
+    /** Copy of the raw extra field bytes. */
+    public byte[] extra(int index) {
+        var bytes = new byte[extraLength(index)];
+        extras.get(extraStarts.get(index), bytes);
+        return bytes;
+    }
+
+    /** The raw extra field bytes, not copied. */
+    ByteBuffer extraBuffer(int index) {
+        return extras.slice(extraStarts.get(index), extraLength(index));
+    }
+
+    /**
+     * The entries sorted by the offset of their local header. Offsets and entry numbers are packed
+     * into one {@code long} and sorted as primitives if they fit, as for all realistic archives.
+     */
+    int[] byOffset() {
+        var bits = 32 - Integer.numberOfLeadingZeros(Math.max(1, size - 1));
+        var max = 0L;
+        for (var i = 0; i < size; i++) {
+            max = Math.max(max, offset(i));
+        }
+        if (max >= 0 && 64 - Long.numberOfLeadingZeros(max) + bits < 64) {
+            var keys = new long[size];
+            for (var i = 0; i < size; i++) {
+                keys[i] = offset(i) << bits | i;
+            }
+            Arrays.sort(keys);
+            var order = new int[size];
+            var mask = (1L << bits) - 1;
+            for (var i = 0; i < size; i++) {
+                order[i] = (int) (keys[i] & mask);
+            }
+            return order;
+        }
+        return IntStream.range(0, size)
+            .boxed()
+            .sorted(Comparator.comparingLong(this::offset))
+            .mapToInt(Integer::intValue)
+            .toArray();
+    }
+
+    /** Approximate heap used by the index, in bytes; mapped indexes use the same amount of memory outside the heap. */
+    public long memory() {
+        return (long) size * (4 * Long.BYTES + 4 * Integer.BYTES + 2 * Short.BYTES) + names.capacity() + extras.capacity();
+    }
+
+    /** Writes the columns in the little-endian format read by {@link #map(ByteBuffer)}, each aligned to 8 bytes. */
+    void write(WritableByteChannel channel) throws IOException {
+        var header = ByteBuffer.allocate(16).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(size).putInt(names.capacity()).putInt(extras.capacity()).putInt(0);
+        write(channel, header.flip());
+
+        var block = ByteBuffer.allocate(RandomAccessInput.BLOCK_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        for (var column : List.of(headers, offsets, compressed, original)) {
+            for (var i = 0; i < column.limit(); i++) {
+                reserve(channel, block);
+                block.putLong(column.get(i));
+            }
+        }
+        for (var column : List.of(crcs, times, nameStarts, extraStarts)) {
+            for (var i = 0; i < column.limit(); i++) {
+                reserve(channel, block);
+                block.putInt(column.get(i));
+            }
+            pad(channel, block, column.limit() * Integer.BYTES);
+        }
+        for (var column : List.of(methods, flags)) {
+            for (var i = 0; i < column.limit(); i++) {
+                reserve(channel, block);
+                block.putShort(column.get(i));
+            }
+            pad(channel, block, column.limit() * Short.BYTES);
+        }
+        write(channel, block.flip());
+        write(channel, names.duplicate().clear());
+        write(channel, ByteBuffer.allocate(padding(names.capacity())));
+        write(channel, extras.duplicate().clear());
+        write(channel, ByteBuffer.allocate(padding(extras.capacity())));
+    }
+
+    /** Index using the columns in {@code buffer}, usually a mapped cache file, without copying them. */
+    static DirectoryIndex map(ByteBuffer buffer) throws IOException {
+        return new DirectoryIndex(buffer);
+    }
+
+    private static ByteBuffer column(ByteBuffer buffer, int length) {
+        var column = buffer.slice(buffer.position(), length).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.position(buffer.position() + length + padding(length));
+        return column;
+    }
+
+    private static int padding(int length) {
+        return -length & 7;
+    }
+
+    private static void pad(WritableByteChannel channel, ByteBuffer block, int length) throws IOException {
+        reserve(channel, block);
+        for (var i = padding(length); i > 0; i--) {
+            block.put((byte) 0);
+        }
+    }
+
+    /** Writes the block if it has no room for a long or the padding. */
+    private static void reserve(WritableByteChannel channel, ByteBuffer block) throws IOException {
+        if (block.remaining() < Long.BYTES) {
+            write(channel, block.flip());
+            block.clear();
+        }
+    }
+
+    private static void write(WritableByteChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    //==============================================================================================
+
+    public static DirectoryIndex build(CentralDirectory directory) throws IOException {
+        return build(directory, null);
+    }
+
+    /**
+     * Index of the entries selected by {@code filter}, all if {@code null}. The filter is tested
+     * on the raw header before anything is copied to the index.
+     */
+    public static DirectoryIndex build(CentralDirectory directory, Filter filter) throws IOException {
+        var records = directory.records();
+        var base = directory.offset();
+        var limit = records.limit();
+        var signature = EntryType.CentralDirectoryFileHeader.signature();
+        var builder = filter == null ? Builder.exact(records) : new Builder(16, 512, 128);
+
+        var index = 0;
+        while (index < limit) {
+            var position = base + index;
+            if (index + HEADER_SIZE > limit || records.getInt(index) != signature)
+                throw new IOException("no central directory file header at 0x%x".formatted(position));
+            var nameLength = Short.toUnsignedInt(records.getShort(index + 28));
+            var extraLength = Short.toUnsignedInt(records.getShort(index + 30));
+            var commentLength = Short.toUnsignedInt(records.getShort(index + 32));
+            var next = index + HEADER_SIZE + nameLength + extraLength + commentLength;
+            if (next > limit)
+                throw new IOException("central directory file header at 0x%x exceeds directory".formatted(position));
+
+            var flags = records.getShort(index + 8);
+            var method = records.getShort(index + 10);
+            var time = records.getInt(index + 12);
+            var compressed = Integer.toUnsignedLong(records.getInt(index + 20));
+            var original = Integer.toUnsignedLong(records.getInt(index + 24));
+            var disk = Short.toUnsignedLong(records.getShort(index + 34));
+            var offset = Integer.toUnsignedLong(records.getInt(index + 42));
+
+            if (compressed == Zip64Extra.SATURATED4 || original == Zip64Extra.SATURATED4
+                    || offset == Zip64Extra.SATURATED4 || disk == Zip64Extra.SATURATED2) {
+                // the filter needs the resolved sizes, the extra field is only copied to the arena if selected
+                records.get(index + HEADER_SIZE + nameLength, builder.extra, 0, extraLength);
+                var zip64 = Zip64Extra.resolve(builder.extra, 0, extraLength, original, compressed, offset, disk);
+                compressed = zip64.compressed();
+                original = zip64.original();
+                offset = zip64.offset();
+            }
+            if (filter != null && !filter.test(records.slice(index + HEADER_SIZE, nameLength),
+                    Short.toUnsignedInt(method), Short.toUnsignedInt(flags), time, compressed, original)) {
+                index = next;
+                continue;
+            }
+
+            var i = builder.add();
+            builder.headers[i] = position;
+            builder.flags[i] = flags;
+            builder.methods[i] = method;
+            builder.times[i] = time;
+            builder.crcs[i] = records.getInt(index + 16);
+            builder.compressed[i] = compressed;
+            builder.original[i] = original;
+            builder.offsets[i] = offset;
+
+            var nameStart = builder.nameStarts[i];
+            builder.names = Builder.reserve(builder.names, nameStart + nameLength);
+            records.get(index + HEADER_SIZE, builder.names, nameStart, nameLength);
+            builder.nameStarts[i + 1] = nameStart + nameLength;
+            var extraStart = builder.extraStarts[i];
+            builder.extras = Builder.reserve(builder.extras, extraStart + extraLength);
+            records.get(index + HEADER_SIZE + nameLength, builder.extras, extraStart, extraLength);
+            builder.extraStarts[i + 1] = extraStart + extraLength;
+            index = next;
+        }
+        // the raw headers can be collected while copying the columns of a filtered index
+        records = null;
+        directory = null;
+        return new DirectoryIndex(builder);
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Growable columns used while parsing, trimmed when creating the index; allocated with the
+     * exact size for an index of all entries, so they are taken over without copying.
+     */
+    private static final class Builder {
+        int size = 0;
+        long[] headers;
+        long[] offsets;
+        long[] compressed;
+        long[] original;
+        int[] crcs;
+        int[] times;
+        short[] methods;
+        short[] flags;
+        int[] nameStarts;
+        int[] extraStarts;
+        byte[] names;
+        byte[] extras;
+        /** An extra field of an entry not yet selected. */
+        final byte[] extra = new byte[0xFFFF];
+
+        Builder(int capacity, int namesLength, int extrasLength) {
+            allocate(capacity);
+            names = new byte[namesLength];
+            extras = new byte[extrasLength];
+        }
+
+        /**
+         * Builder with the exact capacity for all headers of {@code records}, counted in a first
+         * pass only reading their lengths; stops at the first invalid header, reported when parsing.
+         */
+        static Builder exact(ByteBuffer records) {
+            var signature = EntryType.CentralDirectoryFileHeader.signature();
+            var limit = records.limit();
+            var count = 0;
+            var namesLength = 0L;
+            var extrasLength = 0L;
+            var index = 0;
+            while (index + HEADER_SIZE <= limit && records.getInt(index) == signature) {
+                var nameLength = Short.toUnsignedInt(records.getShort(index + 28));
+                var extraLength = Short.toUnsignedInt(records.getShort(index + 30));
+                var commentLength = Short.toUnsignedInt(records.getShort(index + 32));
+                index += HEADER_SIZE + nameLength + extraLength + commentLength;
+                if (index > limit)
+                    break;
+                count += 1;
+                namesLength += nameLength;
+                extrasLength += extraLength;
+            }
+            // both are less than the size of the directory, at most Integer.MAX_VALUE
+            return new Builder(count, (int) namesLength, (int) extrasLength);
+        }
+
+        /** Index of a new entry. */
+        int add() {
+            if (size == crcs.length) {
+                allocate(Math.max(2 * size, 16));
+            }
+            return size++;
+        }
+
+        /** {@code column} if it has {@code length} values, else a copy with {@code length} values. */
+        static long[] trim(long[] column, int length) {
+            return column.length == length ? column : Arrays.copyOf(column, length);
+        }
+
+        static int[] trim(int[] column, int length) {
+            return column.length == length ? column : Arrays.copyOf(column, length);
+        }
+
+        static short[] trim(short[] column, int length) {
+            return column.length == length ? column : Arrays.copyOf(column, length);
+        }
+
+        static byte[] trim(byte[] column, int length) {
+            return column.length == length ? column : Arrays.copyOf(column, length);
+        }
+
+        /** {@code arena} or a copy of it grown to hold at least {@code length} bytes. */
+        static byte[] reserve(byte[] arena, int length) {
+            if (length <= arena.length)
+                return arena;
+            return Arrays.copyOf(arena, (int) Math.max(length, Math.min(Integer.MAX_VALUE - 8, 2L * arena.length)));
+        }
+
+        private void allocate(int capacity) {
+            headers = headers == null ? new long[capacity] : Arrays.copyOf(headers, capacity);
+            offsets = offsets == null ? new long[capacity] : Arrays.copyOf(offsets, capacity);
+            compressed = compressed == null ? new long[capacity] : Arrays.copyOf(compressed, capacity);
+            original = original == null ? new long[capacity] : Arrays.copyOf(original, capacity);
+            crcs = crcs == null ? new int[capacity] : Arrays.copyOf(crcs, capacity);
+            times = times == null ? new int[capacity] : Arrays.copyOf(times, capacity);
+            methods = methods == null ? new short[capacity] : Arrays.copyOf(methods, capacity);
+            flags = flags == null ? new short[capacity] : Arrays.copyOf(flags, capacity);
+            nameStarts = nameStarts == null ? new int[capacity + 1] : Arrays.copyOf(nameStarts, capacity + 1);
+            extraStarts = extraStarts == null ? new int[capacity + 1] : Arrays.copyOf(extraStarts, capacity + 1);
+        }
+    }
+}
@@ -7,10 +7,9 @@ package cfh.zipinfo;
 import static java.util.Objects.*;
 
 import java.io.IOException;
-import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Formatter;
 import java.util.List;
+import java.util.NoSuchElementException;
 
 /**
  * @author Carlos F. Heuberger, 2022-11-02
@@ -20,23 +19,77 @@ public class Entry {
 
     private final long position;
     private final EntryType type;
-    private final List<Field<?>> fields;
+    /** The fixed part of the record as read. */
+    private final byte[] bytes;
+    /** The variable length fields, {@code null} if none. */
+    private final Object[] values;
+    private List<Field<?>> fields = null;
     
-    private Entry(long position, EntryType type, List<Field<?>> fields) {
+    Entry(long position, EntryType type, byte[] bytes, Object[] values) {
         this.position = position;
         this.type = requireNonNull(type);
-        this.fields = Collections.unmodifiableList(fields);
+        this.bytes = requireNonNull(bytes);
+        this.values = values;
+    }
+    
+    public long position() {
+        return position;
+    }
+    
+    public EntryType type() {
+        return type;
+    }
+    
+    /** The fields, created when first asked for. */
+    public List<Field<?>> fields() {
+        var list = fields;
+        if (list == null) {
+            list = fields = Collections.unmodifiableList(type.decoder().fields(bytes, values));
+        }
+        return list;
+    }
+    
+    /** Unsigned value of the first numeric field with given name. */
+    public long number(String name) {
+        var decoder = type.decoder();
+        var i = decoder.number(name);
+        if (i == -1)
+            throw new NoSuchElementException("no numeric field \"" + name + "\" in " + type);
+        return decoder.value(bytes, i);
+    }
+    
+    /** Decoded value of the first text field with given name. */
+    public String text(String name) {
+        var decoder = type.decoder();
+        var i = decoder.object(name);
+        if (i == -1 || !(decoder.object(values, i) instanceof ZipString text))
+            throw new NoSuchElementException("no text field \"" + name + "\" in " + type);
+        return text.toString();
+    }
+    
+    /** Value of the first byte array field, or raw bytes of the text field, with given name. */
+    public byte[] bytes(String name) {
+        var decoder = type.decoder();
+        var i = decoder.object(name);
+        if (i != -1) {
+            var value = decoder.object(values, i);
+            if (value instanceof byte[] array)
+                return array;
+            if (value instanceof ZipString text)
+                return text.bytes();
+        }
+        throw new NoSuchElementException("no bytes field \"" + name + "\" in " + type);
     }
     
     @Override
     public String toString() {
-        try ( var formatter = new Formatter() ) {
-            formatter.format("%s (0x%x)%n", type, position);
-            for (var field : fields) {
-                formatter.format("    %s%n", field);
-            }
-            return formatter.toString();
+        var list = fields();
+        var builder = new StringBuilder(64 * list.size());
+        builder.append(type).append(" (0x").append(Long.toHexString(position)).append(')').append(System.lineSeparator());
+        for (var field : list) {
+            builder.append("    ").append(field).append(System.lineSeparator());
         }
+        return builder.toString();
     }
 
     //==============================================================================================
@@ -47,10 +100,35 @@ public class Entry {
         var type = EntryType.forSignature(signature);
         if (type == null)
             throw new IOException("Unrecognized type: " + Main.format4(signature));
-        var fields = new ArrayList<Field<?>>();
-        for (var fieldType : type.fields()) {
-            fieldType.read(fields, input);
+        return read(position, type, input);
+    }
+    
+    /** Reads the fields of a record whose signature, if any, was already read at {@code position}. */
+    static Entry read(long position, EntryType type, RandomAccessInput input) throws IOException {
+        var event = new Stats.EntryEvent();
+        event.begin();
+        var stats = Stats.current();
+        var start = (stats == null) ? 0 : stats.parsing();
+        Entry entry;
+        try {
+            entry = type.decoder().read(position, type, input);
+        } finally {
+            if (stats != null) {
+                stats.parsed(type, start);
+            }
+        }
+        if (event.shouldCommit()) {
+            event.type = type.name();
+            event.position = position;
+            event.commit();
         }
-        return new Entry(position, type, fields);
+        return entry;
+    }
+    
+    /** Creates an entry from values not read from a record, in the order of the fields of {@code type}. */
+    static Entry of(long position, EntryType type, Object... values) {
+        var decoder = type.decoder();
+        var bytes = new byte[decoder.fixed()];
+        return new Entry(position, type, bytes, decoder.encode(values, bytes));
     }
 }
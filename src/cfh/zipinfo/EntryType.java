@@ -31,13 +31,85 @@ enum EntryType {
         , text("Name")
         , bytes("Extra")
         ),
+    /** Compressed data following a local file header, not a record, so without signature. */
+    FileData(
+        0
+        , size8("Size")
+        ),
+    DataDescriptor(
+        0x08074b50
+        , four("CRC")
+        , size("Compressed")
+        , size("Original")
+        ),
+    /** Data descriptor of an entry with Zip64 extra field, same signature as {@link #DataDescriptor}. */
+    Zip64DataDescriptor(
+        0x08074b50
+        , four("CRC")
+        , size8("Compressed")
+        , size8("Original")
+        ),
+    CentralDirectoryFileHeader(
+        0x02014b50
+        , version("Version made by")
+        , version("Version needed")
+        , flags("Flags")
+        , method()
+        , time("Time")
+        , date("Date")
+        , four("CRC")
+        , size("Compressed")
+        , size("Original")
+        , length("Name")
+        , length("Extra")
+        , length("Comment")
+        , number("Disk start")
+        , two("Internal attributes")
+        , four("External attributes")
+        , offset("Local header")
+        , text("Name")
+        , bytes("Extra")
+        , text("Comment")
+        ),
+    EndOfCentralDirectory(
+        0x06054b50
+        , number("Disk")
+        , number("Directory disk")
+        , number("Disk entries")
+        , number("Entries")
+        , size("Directory size")
+        , offset("Directory offset")
+        , length("Comment")
+        , text("Comment")
+        ),
+    Zip64EndOfCentralDirectory(
+        0x06064b50
+        , size8("Record size")
+        , version("Version made by")
+        , version("Version needed")
+        , number4("Disk")
+        , number4("Directory disk")
+        , size8("Disk entries")
+        , size8("Entries")
+        , size8("Directory size")
+        , offset8("Directory offset")
+        , remaining("Extensible data", "Record size", 44)
+        ),
+    Zip64EndOfCentralDirectoryLocator(
+        0x07064b50
+        , number4("Zip64 disk")
+        , offset8("Zip64 offset")
+        , number4("Disks")
+        ),
     ;
     private final int signature;
     private final List<FieldType<?>> fields;
+    private final Decoder decoder;
     
     private EntryType(int signature, FieldType<?>... fields) {
         this.signature = signature;
         this.fields = List.of(fields);
+        this.decoder = new Decoder(name(), this.fields);
     }
     
     public int signature() {
@@ -47,13 +119,20 @@ enum EntryType {
     public List<FieldType<?>> fields() {
         return fields;
     }
+    
+    /** The layout of the fields, computed once. */
+    Decoder decoder() {
+        return decoder;
+    }
 
     //----------------------------------------------------------------------------------------------
     
     private static final Map<Integer, EntryType> types;
     static {
         types =
-       Arrays.stream(values()).collect(Collectors.toUnmodifiableMap(EntryType::signature, Function.identity()));
+       Arrays.stream(values())
+       .filter(type -> type.signature != 0)
+       .collect(Collectors.toUnmodifiableMap(EntryType::signature, Function.identity(), (first, second) -> first));
     }
     
     public static EntryType forSignature(int signature) {
@@ -70,6 +149,10 @@ enum EntryType {
         return new FieldType.FourBytes(name, Format::hex4);
     }
     
+    private static FieldType<Short> number(String name) {
+        return new FieldType.TwoBytes(name, Format::unsigned2);
+    }
+    
     private static FieldType<Short> version(String name) {
         return new FieldType.TwoBytes(name, Format::version);
     }
@@ -90,19 +173,39 @@ enum EntryType {
         return two(name);
     }
     
-    private static FieldType<Integer> size(String name) {
-        return new FieldType.FourBytes(name, Object::toString);
+    private static FieldType<Long> number4(String name) {
+        return new FieldType.FourBytesUnsigned(name, Object::toString);
+    }
+    
+    private static FieldType<Long> size(String name) {
+        return new FieldType.FourBytesUnsigned(name, Object::toString);
+    }
+    
+    private static FieldType<Long> size8(String name) {
+        return new FieldType.EightBytes(name, Object::toString);
+    }
+    
+    private static FieldType<Long> offset(String name) {
+        return new FieldType.FourBytesUnsigned(name, Format::hex8);
+    }
+    
+    private static FieldType<Long> offset8(String name) {
+        return new FieldType.EightBytes(name, Format::hex8);
     }
     
     private static FieldType<Short> length(String name) {
         return new FieldType.Length(name);
     }
     
-    private static FieldType<String> text(String name) {
+    private static FieldType<ZipString> text(String name) {
         return new FieldType.Text(name);
     }
     
     private static FieldType<byte[]> bytes(String name) {
         return new FieldType.Bytes(name);
     }
+    
+    private static FieldType<byte[]> remaining(String name, String size, int fixed) {
+        return new FieldType.Remaining(name, size, fixed);
+    }
 }
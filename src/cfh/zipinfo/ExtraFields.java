@@ -0,0 +1,273 @@
+/*
+ * Copyright: Carlos F. Heuberger. All rights reserved.
+ *
+ */
+package cfh.zipinfo;
+
+import static java.util.Objects.*;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The sub-fields of an extra field, each a header ID followed by its data size and data.
+ *
+ * <p>Nothing is decoded in advance: iterating only reads the header IDs and sizes, the data of a
+ * sub-field is decoded the first time {@link SubField#decoded()} is called, using the decoder
+ * registered for its header ID. Decoders for Zip64 (0x0001), NTFS (0x000a), extended timestamp
+ * (0x5455), Info-ZIP Unix (0x7875), Unicode path (0x7075) and comment (0x6375) and the JAR marker
+ * (0xcafe) are registered; others can be added with {@link #register(int, String, Decoder)}.
+ *
+ * @author Carlos F. Heuberger, 2026-10-17
+ *
+ */
+public final class ExtraFields implements Iterable<ExtraFields.SubField> {
+
+    @FunctionalInterface
+    public interface Decoder {
+        /** Decodes the little-endian data of a sub-field. */
+        Object decode(ByteBuffer data);
+    }
+
+    private record Registration(String name, Decoder decoder) {
+    }
+
+    private static final Map<Integer, Registration> DECODERS = new ConcurrentHashMap<>();
+
+    static {
+        register(Zip64Extra.HEADER_ID, "Zip64", ExtraFields::zip64);
+        register(0x000a, "NTFS", Ntfs::decode);
+        register(0x5455, "Extended timestamp", Timestamp::decode);
+        register(0x7875, "Unix", Unix::decode);
+        register(0x7075, "Unicode path", Unicode::decode);
+        register(0x6375, "Unicode comment", Unicode::decode);
+        register(0xcafe, "JAR marker", data -> "");
+    }
+
+    /** Registers the decoder for the sub-fields with header ID {@code id}, replacing any previous one. */
+    public static void register(int id, String name, Decoder decoder) {
+        DECODERS.put(id & 0xFFFF, new Registration(requireNonNull(name), requireNonNull(decoder)));
+    }
+
+    /** The sub-fields of the {@code "Extra"} field of a local or central directory file header. */
+    public static ExtraFields of(Entry entry) {
+        var extra = entry.bytes("Extra");
+        return of(extra, 0, extra.length);
+    }
+
+    /** The sub-fields of the extra field in {@code extra} from {@code from} with {@code length} bytes, not copied. */
+    public static ExtraFields of(byte[] extra, int from, int length) {
+        return new ExtraFields(ByteBuffer.wrap(extra, from, length).slice().order(ByteOrder.LITTLE_ENDIAN));
+    }
+
+    private final ByteBuffer buffer;
+
+    private ExtraFields(ByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    /** The first sub-field with header ID {@code id}, {@code null} if not present. */
+    public SubField find(int id) {
+        for (var field : this) {
+            if (field.id() == (id & 0xFFFF))
+                return field;
+        }
+        return null;
+    }
+
+    /** Iterates the sub-fields, stops at a sub-field exceeding the extra field. */
+    @Override
+    public Iterator<SubField> iterator() {
+        return new Iterator<>() {
+            private int index = 0;
+            @Override
+            public boolean hasNext() {
+                return index + 4 <= buffer.limit()
+                    && index + 4 + Short.toUnsignedInt(buffer.getShort(index + 2)) <= buffer.limit();
+            }
+            @Override
+            public SubField next() {
+                if (!hasNext())
+                    throw new NoSuchElementException();
+                var id = Short.toUnsignedInt(buffer.getShort(index));
+                var size = Short.toUnsignedInt(buffer.getShort(index + 2));
+                var field = new SubField(id, buffer.slice(index + 4, size).order(ByteOrder.LITTLE_ENDIAN));
+                index += 4 + size;
+                return field;
+            }
+        };
+    }
+
+    //----------------------------------------------------------------------------------------------
+
+    /** The raw values, which of the header values they replace depends on the saturated header values. */
+    private static String zip64(ByteBuffer data) {
+        var text = new StringBuilder("values=");
+        while (data.remaining() >= 8) {
+            text.append(Format.hex8(data.getLong()));
+            if (data.hasRemaining()) {
+                text.append(", ");
+            }
+        }
+        if (data.remaining() >= 4) {
+            text.append("disk=").append(Integer.toUnsignedLong(data.getInt()));
+        }
+        return text.toString();
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /** One sub-field, its data is only decoded when asked for. */
+    public static final class SubField {
+
+        private final int id;
+        private final ByteBuffer data;
+        private Object decoded = null;
+
+        private SubField(int id, ByteBuffer data) {
+            this.id = id;
+            this.data = data;
+        }
+
+        public int id() {
+            return id;
+        }
+
+        /** Name of the registered decoder, {@code null} if none is registered. */
+        public String name() {
+            var registration = DECODERS.get(id);
+            return registration == null ? null : registration.name;
+        }
+
+        /** A read-only little-endian view of the data. */
+        public ByteBuffer data() {
+            return data.asReadOnlyBuffer().order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        /**
+         * The data decoded by the registered decoder, decoded on the first call; the data as
+         * {@code byte[]} if no decoder is registered, an error message if the data is invalid.
+         */
+        public Object decoded() {
+            if (decoded == null) {
+                var registration = DECODERS.get(id);
+                var data = data();
+                if (registration == null) {
+                    var bytes = new byte[data.remaining()];
+                    data.get(bytes);
+                    decoded = bytes;
+                } else {
+                    try {
+                        decoded = requireNonNull(registration.decoder.decode(data));
+                    } catch (BufferUnderflowException | IllegalArgumentException ex) {
+                        decoded = "invalid data: " + ex;
+                    }
+                }
+            }
+            return decoded;
+        }
+
+        @Override
+        public String toString() {
+            var name = name();
+            var value = decoded();
+            return "Extra %s%s: %s".formatted(
+                Format.hex2((short) id),
+                name == null ? "" : " " + name,
+                value instanceof byte[] bytes ? Format.bytes(bytes) : value);
+        }
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /** NTFS times, the times are {@code null} if not present. */
+    public record Ntfs(Instant modified, Instant accessed, Instant created) {
+        /** 100 ns intervals between 1601-01-01 and 1970-01-01. */
+        private static final long EPOCH = 116_444_736_000_000_000L;
+
+        static Ntfs decode(ByteBuffer data) {
+            data.getInt();  // reserved
+            while (data.remaining() >= 4) {
+                var tag = data.getShort();
+                var size = Short.toUnsignedInt(data.getShort());
+                if (tag == 0x0001 && size >= 24)
+                    return new Ntfs(time(data.getLong()), time(data.getLong()), time(data.getLong()));
+                data.position(data.position() + size);
+            }
+            return new Ntfs(null, null, null);
+        }
+
+        private static Instant time(long filetime) {
+            var intervals = filetime - EPOCH;
+            return Instant.ofEpochSecond(Math.floorDiv(intervals, 10_000_000L), Math.floorMod(intervals, 10_000_000L) * 100);
+        }
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Extended timestamp, the times are {@code null} if not present; the flags tell which times
+     * the local header has, the central directory only has the modification time.
+     */
+    public record Timestamp(int flags, Instant modified, Instant accessed, Instant created) {
+        static Timestamp decode(ByteBuffer data) {
+            var flags = Byte.toUnsignedInt(data.get());
+            var times = new Instant[3];
+            for (var i = 0; i < times.length; i++) {
+                if ((flags & (1 << i)) != 0 && data.remaining() >= 4) {
+                    times[i] = Instant.ofEpochSecond(data.getInt());
+                }
+            }
+            return new Timestamp(flags, times[0], times[1], times[2]);
+        }
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /** Info-ZIP Unix user and group IDs. */
+    public record Unix(int version, long uid, long gid) {
+        static Unix decode(ByteBuffer data) {
+            var version = Byte.toUnsignedInt(data.get());
+            var uid = id(data);
+            var gid = id(data);
+            return new Unix(version, uid, gid);
+        }
+
+        /** Little-endian ID of up to 8 bytes preceded by its size. */
+        private static long id(ByteBuffer data) {
+            var size = Byte.toUnsignedInt(data.get());
+            if (size > 8)
+                throw new IllegalArgumentException("ID of %d bytes".formatted(size));
+            var value = 0L;
+            for (var i = 0; i < size; i++) {
+                value |= Byte.toUnsignedLong(data.get()) << (8 * i);
+            }
+            return value;
+        }
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /** Info-ZIP Unicode path or comment, with the CRC-32 of the header field it replaces. */
+    public record Unicode(int version, int crc, String text) {
+        static Unicode decode(ByteBuffer data) {
+            var version = Byte.toUnsignedInt(data.get());
+            var crc = data.getInt();
+            var bytes = new byte[data.remaining()];
+            data.get(bytes);
+            return new Unicode(version, crc, new String(bytes, StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public String toString() {
+            return "Unicode[version=%d, crc=%s, text=%s]".formatted(version, Format.hex4(crc), text);
+        }
+    }
+}
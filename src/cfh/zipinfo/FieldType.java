@@ -6,8 +6,6 @@ package cfh.zipinfo;
 
 import static java.util.Objects.*;
 
-import java.io.IOException;
-import java.util.List;
 import java.util.Objects;
 import java.util.function.Function;
 
@@ -25,11 +23,6 @@ abstract sealed class FieldType<T> {
         this.formatter = requireNonNull(formatter);
     }
     
-    final void read(List<Field<?>> fields, RandomAccessInput input) throws IOException {
-        var field = readField(fields, input);
-        fields.add(field);
-    }
-    
     String name() {
         return name;
     }
@@ -38,7 +31,8 @@ abstract sealed class FieldType<T> {
         return this + ": " + formatter.apply(field.value());
     }
     
-    protected abstract Field<T> readField(List<Field<?>> fields, RandomAccessInput input) throws IOException;
+    /** Number of bytes in the fixed part of the record, 0 if not stored or of variable length. */
+    abstract int width();
     
     @Override
     public int hashCode() {
@@ -65,9 +59,12 @@ abstract sealed class FieldType<T> {
             super("Signature", Main::format4);
             this.value = requireNonNull(value);
         }
+        int value() {
+            return value;
+        }
         @Override
-        protected Field<Integer> readField(List<Field<?>> fields, RandomAccessInput input) throws IOException {
-            return new Field<>(this, value);
+        int width() {
+            return 0;
         }
     }
     
@@ -78,8 +75,8 @@ abstract sealed class FieldType<T> {
             super(name, formatter);
         }
         @Override
-        protected Field<Short> readField(List<Field<?>> fields, RandomAccessInput input) throws IOException {
-            return new Field<>(this, input.reaShort());
+        int width() {
+            return 2;
         }
     }
     
@@ -87,11 +84,11 @@ abstract sealed class FieldType<T> {
     
     static final class Length extends FieldType<Short> {
         Length(String name) {
-            super(name, Object::toString);
+            super(name, Format::unsigned2);
         }
         @Override
-        protected Field<Short> readField(List<Field<?>> fields, RandomAccessInput input) throws IOException {
-            return new Field<>(this, input.reaShort());
+        int width() {
+            return 2;
         }
     }
     
@@ -102,48 +99,83 @@ abstract sealed class FieldType<T> {
             super(name, formatter);
         }
         @Override
-        protected Field<Integer> readField(List<Field<?>> fields, RandomAccessInput input) throws IOException {
-            return new Field<>(this, input.readInt());
+        int width() {
+            return 4;
         }
     }
     
     ////////////////////////////////////////////////////////////////////////////////////////////////
     
-    static final class Text extends FieldType<String> {
+    /** Four bytes unsigned, widened to 64 bits like the sizes and offsets of the Zip64 records. */
+    static final class FourBytesUnsigned extends FieldType<Long> {
+        FourBytesUnsigned(String name, Function<Long, String> formatter) {
+            super(name, formatter);
+        }
+        @Override
+        int width() {
+            return 4;
+        }
+    }
+    
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+    
+    static final class EightBytes extends FieldType<Long> {
+        EightBytes(String name, Function<Long, String> formatter) {
+            super(name, formatter);
+        }
+        @Override
+        int width() {
+            return 8;
+        }
+    }
+    
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+    
+    /** Raw text whose length is the {@link Length} of the same name, UTF-8 if the flag bit 11 of the record is set, otherwise CP437. */
+    static final class Text extends FieldType<ZipString> {
         Text(String name) {
-            super(name, Format::text);
+            super(name, text -> Format.text(text.toString()));
         }
         @Override
-        protected Field<String> readField(List<Field<?>> fields, RandomAccessInput input) throws IOException {
-            var length = fields
-            .stream()
-            .filter(field -> field.type().name().equals(this.name()) && field.type() instanceof Length)
-            .findFirst()
-            .map(Field::value)
-            .map(Short.class::cast)
-            .orElseThrow()
-            .intValue();
-            return new Field<>(this, input.readText(length));
+        int width() {
+            return 0;
         }
     }
     
     ////////////////////////////////////////////////////////////////////////////////////////////////
     
+    /** Bytes whose length is the {@link Length} of the same name. */
     static final class Bytes extends FieldType<byte[]> {
         Bytes(String name) {
             super(name, Format::bytes);
         }
         @Override
-        protected Field<byte[]> readField(List<Field<?>> fields, RandomAccessInput input) throws IOException {
-            var length = fields
-            .stream()
-            .filter(field -> field.type().name().equals(this.name()) && field.type() instanceof Length)
-            .findFirst()
-            .map(Field::value)
-            .map(Short.class::cast)
-            .orElseThrow()
-            .intValue();
-            return new Field<>(this, input.readBytes(length));
+        int width() {
+            return 0;
+        }
+    }
+    
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+    
+    /** The rest of a record whose size, excluding the {@code fixed} part, is given by another field. */
+    static final class Remaining extends FieldType<byte[]> {
+        private final String size;
+        private final int fixed;
+        Remaining(String name, String size, int fixed) {
+            super(name, Format::bytes);
+            this.size = requireNonNull(size);
+            this.fixed = fixed;
+        }
+        /** Name of the field with the size. */
+        String size() {
+            return size;
+        }
+        int fixed() {
+            return fixed;
+        }
+        @Override
+        int width() {
+            return 0;
         }
     }
 }
@@ -0,0 +1,255 @@
+/*
+ * Copyright: Carlos F. Heuberger. All rights reserved.
+ *
+ */
+package cfh.zipinfo;
+
+import static java.util.Objects.*;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Locale;
+import java.util.function.LongPredicate;
+import java.util.regex.Pattern;
+
+/**
+ * Selects entries by the values of their central directory file header, tested while the
+ * directory is scanned so only the selected entries are indexed and read further.
+ *
+ * <p>An expression is a list of terms separated by {@code ;}, all must match:
+ * <ul>
+ * <li>{@code name=<glob>}, {@code name!=<glob>}: {@code *} matches within a path segment,
+ *     {@code **} across segments and {@code ?} one character; matched on the raw name bytes</li>
+ * <li>{@code name~<regex>}: regular expression found in the decoded name</li>
+ * <li>{@code method=<stored|deflated|number>}, {@code method!=...}</li>
+ * <li>{@code size<op><bytes>}, {@code compressed<op><bytes>}: op one of {@code = != < <= > >=},
+ *     bytes with optional {@code K}, {@code M} or {@code G} suffix</li>
+ * <li>{@code flags&<bits>}: any of the bits set, {@code flags=<bits>}</li>
+ * <li>{@code date<op><yyyy-mm-dd>}: the MS-DOS date of the entry</li>
+ * </ul>
+ * The terms on numbers are tested first, then the globs and last the regular expressions, which
+ * need the name decoded.
+ *
+ * @author Carlos F. Heuberger, 2026-10-17
+ *
+ */
+public final class Filter {
+
+    private static final Pattern TERM = Pattern.compile("(name|method|size|compressed|flags|date)\\s*(!=|<=|>=|=|<|>|~|&)\\s*(.*)");
+    private static final Pattern DATE = Pattern.compile("(\\d{4})-(\\d{1,2})-(\\d{1,2})");
+
+    /** The values of an entry tested by a term. */
+    @FunctionalInterface
+    private interface Term {
+        boolean test(ByteBuffer name, int method, int flags, int dateTime, long compressed, long original);
+    }
+
+    /** Parses the expression, throws {@code IllegalArgumentException} if invalid. */
+    public static Filter parse(String expression) {
+        var numbers = new ArrayList<Term>();
+        var globs = new ArrayList<Term>();
+        var regexes = new ArrayList<Term>();
+        for (var text : expression.split(";")) {
+            if (text.isBlank())
+                continue;
+            var matcher = TERM.matcher(text.strip());
+            if (!matcher.matches())
+                throw new IllegalArgumentException("invalid filter term: " + text);
+            var key = matcher.group(1);
+            var op = matcher.group(2);
+            var value = matcher.group(3);
+            switch (key) {
+                case "name" -> {
+                    switch (op) {
+                        case "=" -> {
+                            var glob = glob(value);
+                            globs.add((n, m, f, d, c, o) -> glob.matches(n, utf8(f)));
+                        }
+                        case "!=" -> {
+                            var glob = glob(value);
+                            globs.add((n, m, f, d, c, o) -> !glob.matches(n, utf8(f)));
+                        }
+                        case "~" -> {
+                            var regex = Pattern.compile(value);
+                            regexes.add((n, m, f, d, c, o) -> regex.matcher(ZipString.decode(n, utf8(f))).find());
+                        }
+                        default -> throw invalid(text);
+                    }
+                }
+                case "method" -> {
+                    var method = method(value);
+                    switch (op) {
+                        case "=" -> numbers.add((n, m, f, d, c, o) -> m == method);
+                        case "!=" -> numbers.add((n, m, f, d, c, o) -> m != method);
+                        default -> throw invalid(text);
+                    }
+                }
+                case "size" -> {
+                    var test = compare(op, bytes(value), text);
+                    numbers.add((n, m, f, d, c, o) -> test.test(o));
+                }
+                case "compressed" -> {
+                    var test = compare(op, bytes(value), text);
+                    numbers.add((n, m, f, d, c, o) -> test.test(c));
+                }
+                case "flags" -> {
+                    var bits = Integer.decode(value);
+                    switch (op) {
+                        case "&" -> numbers.add((n, m, f, d, c, o) -> (f & bits) != 0);
+                        case "=" -> numbers.add((n, m, f, d, c, o) -> f == bits);
+                        default -> throw invalid(text);
+                    }
+                }
+                case "date" -> {
+                    var test = compare(op, date(value), text);
+                    numbers.add((n, m, f, d, c, o) -> test.test(d >>> 16));
+                }
+                default -> throw invalid(text);
+            }
+        }
+        numbers.addAll(globs);
+        numbers.addAll(regexes);
+        return new Filter(numbers.toArray(Term[]::new));
+    }
+
+    private final Term[] terms;
+
+    private Filter(Term[] terms) {
+        this.terms = terms;
+    }
+
+    /** If the entry with the given raw name and header values is selected. */
+    boolean test(ByteBuffer name, int method, int flags, int dateTime, long compressed, long original) {
+        for (var term : terms) {
+            if (!term.test(name, method, flags, dateTime, compressed, original))
+                return false;
+        }
+        return true;
+    }
+
+    //----------------------------------------------------------------------------------------------
+
+    private static IllegalArgumentException invalid(String term) {
+        return new IllegalArgumentException("invalid filter term: " + term);
+    }
+
+    private static boolean utf8(int flags) {
+        return (flags & ZipString.FLAG_UTF8) != 0;
+    }
+
+    private static LongPredicate compare(String op, long value, String term) {
+        return switch (op) {
+            case "=" -> v -> v == value;
+            case "!=" -> v -> v != value;
+            case "<" -> v -> v < value;
+            case "<=" -> v -> v <= value;
+            case ">" -> v -> v > value;
+            case ">=" -> v -> v >= value;
+            default -> throw invalid(term);
+        };
+    }
+
+    private static int method(String value) {
+        return switch (value.toLowerCase(Locale.ROOT)) {
+            case "stored" -> RecordWalker.METHOD_STORED;
+            case "deflated" -> RecordWalker.METHOD_DEFLATED;
+            default -> Integer.parseInt(value);
+        };
+    }
+
+    private static long bytes(String value) {
+        var text = value.strip().toUpperCase(Locale.ROOT);
+        var factor = switch (text.isEmpty() ? ' ' : text.charAt(text.length() - 1)) {
+            case 'K' -> 1L << 10;
+            case 'M' -> 1L << 20;
+            case 'G' -> 1L << 30;
+            default -> 1L;
+        };
+        if (factor != 1) {
+            text = text.substring(0, text.length() - 1);
+        }
+        return Long.parseLong(text.strip()) * factor;
+    }
+
+    /** The date as in the high 16 bits of {@link DirectoryIndex#dateTime(int)}. */
+    private static long date(String value) {
+        var matcher = DATE.matcher(value.strip());
+        if (!matcher.matches())
+            throw new IllegalArgumentException("invalid date: " + value);
+        var year = Integer.parseInt(matcher.group(1));
+        var month = Integer.parseInt(matcher.group(2));
+        var day = Integer.parseInt(matcher.group(3));
+        return ((year - 1980) << 9) | (month << 5) | day;
+    }
+
+    private static Glob glob(String pattern) {
+        return new Glob(pattern);
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Glob pattern matched on the raw bytes of names, without decoding them. The pattern is
+     * encoded in UTF-8 and, for names in CP437, in CP437 if possible.
+     */
+    private static final class Glob {
+        private final byte[] utf8;
+        private final byte[] cp437;
+
+        Glob(String pattern) {
+            utf8 = pattern.getBytes(StandardCharsets.UTF_8);
+            cp437 = requireNonNullElse(ZipString.encodeCp437(pattern), utf8);
+        }
+
+        boolean matches(ByteBuffer name, boolean utf8) {
+            return matches(utf8 ? this.utf8 : cp437, utf8, 0, name, name.position());
+        }
+
+        /** @param utf8 if {@code ?} matches all bytes of a UTF-8 character, otherwise one byte */
+        private static boolean matches(byte[] pattern, boolean utf8, int p, ByteBuffer name, int n) {
+            var end = name.limit();
+            while (p < pattern.length) {
+                var b = pattern[p];
+                if (b == '*') {
+                    var any = p + 1 < pattern.length && pattern[p + 1] == '*';
+                    var next = any ? p + 2 : p + 1;
+                    if (next == pattern.length)
+                        return any || indexOf(name, (byte) '/', n) == -1;
+                    for (var i = n; i <= end; i++) {
+                        if (matches(pattern, utf8, next, name, i))
+                            return true;
+                        if (i < end && !any && name.get(i) == '/')
+                            return false;
+                    }
+                    return false;
+                }
+                if (n >= end)
+                    return false;
+                if (b == '?') {
+                    if (name.get(n) == '/')
+                        return false;
+                    // one character, its continuation bytes if UTF-8
+                    n += 1;
+                    while (utf8 && n < end && (name.get(n) & 0xC0) == 0x80) {
+                        n += 1;
+                    }
+                } else {
+                    if (name.get(n) != b)
+                        return false;
+                    n += 1;
+                }
+                p += 1;
+            }
+            return n == end;
+        }
+
+        private static int indexOf(ByteBuffer name, byte b, int from) {
+            for (var i = from; i < name.limit(); i++) {
+                if (name.get(i) == b)
+                    return i;
+            }
+            return -1;
+        }
+    }
+}
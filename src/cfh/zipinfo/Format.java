@@ -4,8 +4,6 @@
  */
 package cfh.zipinfo;
 
-import java.util.Formatter;
-
 /**
  * @author Carlos F. Heuberger, 2022-11-02
  *
@@ -18,6 +16,8 @@ public abstract class Format {
     
     private static final String INDENT = "\n        ";
     
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+    
     private static final String[] FILE_ATTRIBUTE = """
         MS-DOS and OS/2
         Amiga
@@ -79,17 +79,20 @@ public abstract class Format {
             value&0xFFFF);
     }
     
+    public static String unsigned2(short value) {
+        return Integer.toString(value & 0xFFFF);
+    }
+    
     public static String bytes(byte[] bytes) {
-        try ( var formatter = new Formatter() ) {
-            var first = true;
-            formatter.format("[");
-            for (var b : bytes) {
-                formatter.format(first?"%02x":" %02x", b & 0xFF);
-                first = false;
+        var builder = new StringBuilder(2 + 3 * bytes.length);
+        builder.append('[');
+        for (var i = 0; i < bytes.length; i++) {
+            if (i > 0) {
+                builder.append(' ');
             }
-            formatter.format("]");
-            return formatter.toString();
+            builder.append(HEX[(bytes[i] >> 4) & 0x0F]).append(HEX[bytes[i] & 0x0F]);
         }
+        return builder.append(']').toString();
     }
 
     public static String text(String text) {
@@ -106,14 +109,14 @@ public abstract class Format {
     }
     
     public static String flags(short flags) {
-        var string = hex2(flags);
+        var builder = new StringBuilder(hex2(flags));
         int f = flags & 0xFFFF;
         for (var flag : FLAGS) {
             if ((f & 0x01) != 0) {
-                string += INDENT + flag;
+                builder.append(INDENT).append(flag);
             }
             f >>>= 1;
         }
-        return string;
+        return builder.toString();
     }
 }
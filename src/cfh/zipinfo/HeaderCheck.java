@@ -0,0 +1,223 @@
+/*
+ * Copyright: Carlos F. Heuberger. All rights reserved.
+ *
+ */
+package cfh.zipinfo;
+
+import static java.util.Objects.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Compares each central directory file header with its local file header: name, CRC, sizes,
+ * method and flags. CRC and sizes are not compared if the local header has them zero because they
+ * follow in the data descriptor.
+ *
+ * <p>The local headers are visited sorted by offset, split in chunks checked in parallel. Each
+ * chunk reads forward with one buffer: a read starting at a header also contains the following
+ * headers up to the size of the buffer, so small entries are checked with few large sequential
+ * reads instead of one seek per entry in directory order.
+ *
+ * @author Carlos F. Heuberger, 2026-10-17
+ *
+ */
+public final class HeaderCheck implements AutoCloseable {
+
+    /** Size of the buffer of each chunk, larger than the largest local header. */
+    static final int WINDOW = 256 * 1024;
+
+    /** Number of entries of a chunk checked with one buffer. */
+    private static final int CHUNK = 1024;
+
+    public record Mismatch(String name, long offset, String message) {
+        @Override
+        public String toString() {
+            return "%s (0x%x): %s".formatted(name, offset, message);
+        }
+    }
+
+    private final FileChannel channel;
+    /** Counters of the reads, {@code null} if not counted. */
+    private final Stats stats;
+
+    public HeaderCheck(File file) throws IOException {
+        this(file, null);
+    }
+
+    /** Check counting its reads in {@code stats}, if not {@code null}. */
+    HeaderCheck(File file, Stats stats) throws IOException {
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        this.stats = stats;
+    }
+
+    /** Checks all entries of {@code index} using {@code pool}, returns the mismatches in file order. */
+    public List<Mismatch> check(DirectoryIndex index, ForkJoinPool pool) throws IOException {
+        var order = index.byOffset();
+        @SuppressWarnings("unchecked")
+        var chunks = (List<Mismatch>[]) new List<?>[(order.length + CHUNK - 1) / CHUNK];
+        var length = channel.size();
+        pool.invoke(new Task(index, order, length, chunks, 0, chunks.length));
+        var mismatches = new ArrayList<Mismatch>();
+        for (var chunk : chunks) {
+            mismatches.addAll(chunk);
+        }
+        return mismatches;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    //----------------------------------------------------------------------------------------------
+
+    /** Checks the entries {@code order[from]} to {@code order[to - 1]}, in that order. */
+    private List<Mismatch> check(DirectoryIndex index, int[] order, long length, int from, int to) {
+        var mismatches = new ArrayList<Mismatch>(0);
+        var window = new Window(channel, length, stats);
+        for (var k = from; k < to; k++) {
+            var i = order[k];
+            var offset = index.offset(i);
+            try {
+                var message = compare(index, i, window, offset);
+                if (message != null) {
+                    mismatches.add(new Mismatch(index.name(i), offset, message));
+                }
+            } catch (IOException ex) {
+                mismatches.add(new Mismatch(index.name(i), offset, ex.toString()));
+            }
+        }
+        return mismatches;
+    }
+
+    /** The differences of the local header, {@code null} if none. */
+    private static String compare(DirectoryIndex index, int i, Window window, long offset) throws IOException {
+        var header = window.at(offset, Verifier.LOCAL_HEADER_SIZE);
+        if (header == null || header.getInt(0) != EntryType.LocalFileHeader.signature())
+            return "no local file header";
+        var nameLength = Short.toUnsignedInt(header.getShort(26));
+        var extraLength = Short.toUnsignedInt(header.getShort(28));
+        header = window.at(offset, Verifier.LOCAL_HEADER_SIZE + nameLength + extraLength);
+        if (header == null)
+            return "local file header exceeds the file";
+
+        var differences = new ArrayList<String>(0);
+        var flags = Short.toUnsignedInt(header.getShort(6));
+        var name = header.slice(Verifier.LOCAL_HEADER_SIZE, nameLength);
+        if (!name.equals(index.nameBuffer(i))) {
+            differences.add("local name \"%s\"".formatted(ZipString.decode(name, (flags & ZipString.FLAG_UTF8) != 0)));
+        }
+        if (flags != index.flags(i)) {
+            differences.add("flags 0x%04x, local 0x%04x".formatted(index.flags(i), flags));
+        }
+        var method = Short.toUnsignedInt(header.getShort(8));
+        if (method != index.method(i)) {
+            differences.add("method %d, local %d".formatted(index.method(i), method));
+        }
+
+        var crc = header.getInt(14);
+        var compressed = Integer.toUnsignedLong(header.getInt(18));
+        var original = Integer.toUnsignedLong(header.getInt(22));
+        if (compressed == Zip64Extra.SATURATED4 || original == Zip64Extra.SATURATED4) {
+            var extra = new byte[extraLength];
+            header.get(Verifier.LOCAL_HEADER_SIZE + nameLength, extra);
+            var zip64 = Zip64Extra.resolve(extra, 0, extraLength, original, compressed, 0, 0);
+            compressed = zip64.compressed();
+            original = zip64.original();
+        }
+        // with data descriptor the values are zero in the local header
+        var descriptor = (flags & RecordWalker.FLAG_DESCRIPTOR) != 0;
+        if (crc != index.crc(i) && !(descriptor && crc == 0)) {
+            differences.add("CRC %s, local %s".formatted(Format.hex4(index.crc(i)), Format.hex4(crc)));
+        }
+        if (compressed != index.compressed(i) && !(descriptor && compressed == 0)) {
+            differences.add("compressed %d, local %d".formatted(index.compressed(i), compressed));
+        }
+        if (original != index.original(i) && !(descriptor && original == 0)) {
+            differences.add("size %d, local %d".formatted(index.original(i), original));
+        }
+        return differences.isEmpty() ? null : String.join(", ", differences);
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /** Buffer of the file, moved forward by reading at the requested position when needed. */
+    private static final class Window {
+        private final FileChannel channel;
+        private final long length;
+        private final Stats stats;
+        private final ByteBuffer buffer = ByteBuffer.allocate(WINDOW).order(ByteOrder.LITTLE_ENDIAN);
+        private long start = -1;
+
+        Window(FileChannel channel, long length, Stats stats) {
+            this.channel = channel;
+            this.length = length;
+            this.stats = stats;
+            buffer.limit(0);
+        }
+
+        /** The {@code count} bytes at {@code position}, {@code null} if past the end of the file. */
+        ByteBuffer at(long position, int count) throws IOException {
+            if (position + count > length)
+                return null;
+            if (start < 0 || position < start || position + count > start + buffer.limit()) {
+                buffer.clear();
+                var begin = (stats == null) ? 0 : System.nanoTime();
+                try {
+                    int read;
+                    do {
+                        read = channel.read(buffer, position + buffer.position());
+                    } while (read != -1 && buffer.hasRemaining());
+                } catch (IOException ex) {
+                    throw RandomAccessInput.exception(position, ex);
+                }
+                buffer.flip();
+                if (stats != null) {
+                    stats.readParallel(buffer.limit(), System.nanoTime() - begin);
+                }
+                start = position;
+            }
+            return buffer.slice((int) (position - start), count).order(ByteOrder.LITTLE_ENDIAN);
+        }
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /** Checks a range of chunks, splitting it so the chunks are checked in parallel. */
+    private final class Task extends RecursiveAction {
+        // never serialized, tasks only run in the pool
+        private static final long serialVersionUID = 1L;
+        private final transient DirectoryIndex index;
+        private final int[] order;
+        private final long length;
+        private final transient List<Mismatch>[] chunks;
+        private final int from;
+        private final int to;
+        Task(DirectoryIndex index, int[] order, long length, List<Mismatch>[] chunks, int from, int to) {
+            this.index = requireNonNull(index);
+            this.order = requireNonNull(order);
+            this.length = length;
+            this.chunks = requireNonNull(chunks);
+            this.from = from;
+            this.to = to;
+        }
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                var middle = (from + to) >>> 1;
+                invokeAll(new Task(index, order, length, chunks, from, middle), new Task(index, order, length, chunks, middle, to));
+            } else if (from < to) {
+                chunks[from] = check(index, order, length, from * CHUNK, Math.min(order.length, (from + 1) * CHUNK));
+            }
+        }
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright: Carlos F. Heuberger. All rights reserved.
+ *
+ */
+package cfh.zipinfo;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.zip.CRC32;
+
+/**
+ * Cache of central directory indexes, keyed by path, size, last-modified time and the checksum of
+ * the End of Central Directory record.
+ *
+ * <p>Indexes are kept in an in-process LRU limited by the memory used by the indexes and, if a
+ * cache directory is given, stored there in a compact binary form. Later runs memory-map the
+ * stored index instead of parsing the central directory again, only the end record is read to
+ * check the key.
+ *
+ * @author Carlos F. Heuberger, 2026-10-17
+ *
+ */
+public final class IndexCache {
+
+    /** Default memory limit of the in-process LRU. */
+    public static final long MEMORY = 256L * 1024 * 1024;
+
+    private static final int MAGIC = 0x58495a4a;  // "JZIX"
+    private static final int VERSION = 2;
+
+    private record Key(String path, long size, long modified, int checksum) {
+    }
+
+    private final Path directory;
+    private final long memory;
+    private long used = 0;
+    private final LinkedHashMap<Key, DirectoryIndex> indexes = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * @param directory where the indexes are stored, {@code null} to only cache in memory
+     * @param memory limit of the memory used by the indexes cached in memory
+     */
+    public IndexCache(Path directory, long memory) throws IOException {
+        if (directory != null) {
+            Files.createDirectories(directory);
+        }
+        this.directory = directory;
+        this.memory = memory;
+    }
+
+    /** The index of {@code file} from the cache, reading it from {@code input} if not cached. */
+    public DirectoryIndex get(File file, RandomAccessInput input) throws IOException {
+        var key = key(file, input);
+        synchronized (indexes) {
+            var index = indexes.get(key);
+            if (index != null)
+                return index;
+        }
+
+        DirectoryIndex index = null;
+        var path = (directory == null) ? null : directory.resolve(name(key));
+        if (path != null && Files.isRegularFile(path)) {
+            try {
+                index = load(path, key);
+            } catch (IOException ex) {
+                // replaced by the index stored below
+                System.err.printf("%s: invalid cache file deleted: %s%n", path, ex.getMessage());
+                Files.deleteIfExists(path);
+            }
+        }
+        if (index == null) {
+            index = DirectoryIndex.build(CentralDirectory.read(input));
+            if (path != null) {
+                store(path, key, index);
+            }
+        }
+
+        synchronized (indexes) {
+            if (!indexes.containsKey(key)) {
+                indexes.put(key, index);
+                used += index.memory();
+                // least recently used first, the newest index is always kept
+                var iterator = indexes.values().iterator();
+                while (used > memory && indexes.size() > 1) {
+                    used -= iterator.next().memory();
+                    iterator.remove();
+                }
+            }
+        }
+        return index;
+    }
+
+    //----------------------------------------------------------------------------------------------
+
+    private static Key key(File file, RandomAccessInput input) throws IOException {
+        var position = CentralDirectory.findEnd(input);
+        input.seek(position);
+        var end = input.readBytes(CentralDirectory.END_SIZE);
+        var comment = Short.toUnsignedInt(ByteBuffer.wrap(end).order(ByteOrder.LITTLE_ENDIAN).getShort(CentralDirectory.END_SIZE - 2));
+        var crc = new CRC32();
+        crc.update(end);
+        crc.update(input.readBytes(comment));
+        return new Key(
+            file.getCanonicalPath(),
+            input.length(),
+            Files.getLastModifiedTime(file.toPath()).toMillis(),
+            (int) crc.getValue());
+    }
+
+    /** Name of the cache file, a hash of the path. */
+    private static String name(Key key) {
+        try {
+            var digest = MessageDigest.getInstance("SHA-256").digest(key.path.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 16) + ".idx";
+        } catch (NoSuchAlgorithmException ex) {
+            throw new AssertionError("SHA-256 not available", ex);
+        }
+    }
+
+    /**
+     * Maps the stored index, {@code null} if stored for another key or by another version, which
+     * is replaced when storing the new index; throws {@code IOException} if the file is corrupt.
+     */
+    private static DirectoryIndex load(Path path, Key key) throws IOException {
+        try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            var buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()).order(ByteOrder.LITTLE_ENDIAN);
+            if (buffer.getInt() != MAGIC)
+                throw new IOException("not an index cache file");
+            if (buffer.getInt() != VERSION)
+                return null;
+            if (buffer.getLong() != key.size || buffer.getLong() != key.modified || buffer.getInt() != key.checksum)
+                return null;
+            var length = buffer.getInt();
+            if (length < 0 || length > buffer.remaining())
+                throw new IOException("invalid path length: " + length);
+            var bytes = new byte[length];
+            buffer.get(bytes);
+            if (!key.path.equals(new String(bytes, StandardCharsets.UTF_8)))
+                return null;
+            buffer.position(buffer.position() + (-buffer.position() & 7));
+            return DirectoryIndex.map(buffer.slice().order(ByteOrder.LITTLE_ENDIAN));
+        } catch (BufferUnderflowException | IllegalArgumentException ex) {
+            throw (IOException) new IOException("truncated index cache file").initCause(ex);
+        }
+    }
+
+    /** Stores the index using a temporary file, replaced atomically. */
+    private static void store(Path path, Key key, DirectoryIndex index) throws IOException {
+        var temp = Files.createTempFile(path.getParent(), "index", ".tmp");
+        try {
+            try (var channel = FileChannel.open(temp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                var bytes = key.path.getBytes(StandardCharsets.UTF_8);
+                var header = ByteBuffer.allocate(32 + bytes.length + 8).order(ByteOrder.LITTLE_ENDIAN);
+                header.putInt(MAGIC).putInt(VERSION).putLong(key.size).putLong(key.modified).putInt(key.checksum);
+                header.putInt(bytes.length).put(bytes);
+                header.position(header.position() + (-header.position() & 7));
+                header.flip();
+                while (header.hasRemaining()) {
+                    channel.write(header);
+                }
+                index.write(channel);
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+}
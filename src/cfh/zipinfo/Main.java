@@ -6,7 +6,15 @@ package cfh.zipinfo;
 
 import java.io.File;
 import java.io.IOException;
-import java.util.Formatter;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
 
@@ -17,39 +25,213 @@ import java.util.zip.ZipFile;
 public class Main {
 
     public static void main(String[] args) {
-        var list = false;
+        var options = new Options();
         
         var i = 0;
         while (i < args.length) {
             var arg = args[i];
-            if (arg.equals("--") || !arg.startsWith("-"))
+            if (arg.equals("--") || arg.equals("-") || !arg.startsWith("-"))
                 break;
             switch (arg) {
                 case "-h", "-?" -> usage(null);
-                case "-l" -> list = true;
-                default -> usage("Unrecognized option: " + arg);
+                case "-l" -> options.list = true;
+                case "-d" -> options.directory = true;
+                case "-t" -> options.tree = true;
+                case "--verify" -> options.verify = true;
+                case "--extra" -> options.extra = true;
+                case "--recover" -> options.recover = true;
+                case "--check" -> options.check = true;
+                case "--headers" -> options.headers = true;
+                case "--stats" -> options.stats = true;
+                case "--diff" -> options.diff = true;
+                case "--summary" -> options.summary = true;
+                case "-m" -> {
+                    try {
+                        options.mode = RandomAccessInput.Mode.parse(argument(args, ++i, arg));
+                    } catch (IllegalArgumentException ex) {
+                        usage(ex.getMessage());
+                    }
+                }
+                case "-n" -> {
+                    try {
+                        options.open = Integer.parseInt(argument(args, ++i, arg));
+                    } catch (NumberFormatException ex) {
+                        usage("Invalid number for " + arg + ": " + args[i]);
+                    }
+                    if (options.open < 1) {
+                        usage("Invalid number for " + arg + ": " + args[i]);
+                    }
+                }
+                default -> {
+                    if (arg.startsWith("--format=")) {
+                        try {
+                            options.style = Printer.Style.parse(arg.substring(arg.indexOf('=') + 1));
+                        } catch (IllegalArgumentException ex) {
+                            usage(ex.getMessage());
+                        }
+                    } else if (arg.startsWith("--cache=")) {
+                        try {
+                            options.cache = new IndexCache(Path.of(arg.substring(arg.indexOf('=') + 1)), IndexCache.MEMORY);
+                        } catch (IOException ex) {
+                            usage("Invalid cache directory: " + ex.getMessage());
+                        }
+                    } else if (arg.startsWith("--filter=")) {
+                        try {
+                            options.filter = Filter.parse(arg.substring(arg.indexOf('=') + 1));
+                        } catch (IllegalArgumentException ex) {
+                            usage(ex.getMessage());
+                        }
+                    } else if (arg.startsWith("--serve=")) {
+                        options.serve = arg.substring(arg.indexOf('=') + 1);
+                    } else if (arg.startsWith("--top=")) {
+                        try {
+                            options.top = Integer.parseInt(arg.substring(arg.indexOf('=') + 1));
+                        } catch (NumberFormatException ex) {
+                            usage("Invalid number for " + arg);
+                        }
+                        if (options.top < 0) {
+                            usage("Invalid number for " + arg);
+                        }
+                    } else if (arg.startsWith("--fields=")) {
+                        options.fields = Set.of(arg.substring(arg.indexOf('=') + 1).split(","));
+                    } else {
+                        usage("Unrecognized option: " + arg);
+                    }
+                }
             }
             i += 1;
         }
+        if (i < args.length && args[i].equals("--")) {
+            i += 1;
+        }
         
+        if (options.serve != null) {
+            if (i != args.length) {
+                usage("--serve takes no paths");
+            }
+            try {
+                var cache = (options.cache != null) ? options.cache : new IndexCache(null, IndexCache.MEMORY);
+                new Server(cache, options.open).serve(options.serve, System.out);
+            } catch (IOException ex) {
+                ex.printStackTrace();
+                System.exit(2);
+            }
+            return;
+        }
         if (i == args.length) {
             usage("Please provide path to file");
         }
-        var path = args[i++];
-        
-        if (i < args.length) {
-            usage("Only one path please");
+        if (options.diff) {
+            if (args.length - i != 2) {
+                usage("--diff needs two archives");
+            }
+            if (!diff(new File(args[i]), new File(args[i + 1]), options)) {
+                System.exit(2);
+            }
+            return;
+        }
+        if (i == args.length - 1 && (Sources.isUrl(args[i]) || args[i].equals("-"))) {
+            var uri = args[i].equals("-") ? null : URI.create(args[i]);
+            if (!run(null, uri, options, false, System.out)) {
+                System.exit(2);
+            }
+            return;
+        }
+        List<File> files;
+        try {
+            files = Batch.files(Arrays.asList(args).subList(i, args.length));
+        } catch (IOException ex) {
+            usage(ex.getMessage());
+            return;
         }
         
-        var main = new Main(path);
+        boolean ok;
+        if (files.size() == 1 && !Files.isDirectory(Path.of(args[i])) && !args[i].startsWith("@")) {
+            ok = run(files.get(0), null, options, false, System.out);
+        } else {
+            if (options.summary) {
+                options.totals = new Summary(options.top);
+            }
+            ok = Batch.run(files, options.open, (file, out) -> run(file, null, options, true, out));
+            if (options.totals != null) {
+                options.totals.print(System.out);
+            }
+        }
+        if (!ok) {
+            System.exit(2);
+        }
+    }
+    
+    private static String argument(String[] args, int index, String option) {
+        if (index >= args.length) {
+            usage("Missing argument for " + option);
+        }
+        return args[index];
+    }
+    
+    /** Runs the selected analysis of one file or URL, returns {@code false} if it failed. */
+    private static boolean run(File file, URI uri, Options options, boolean batch, PrintStream out) {
+        var main = new Main(file, uri, options, out);
+        if (options.list || batch) {
+            out.printf("File: %s%n", uri != null ? uri : file.getAbsolutePath());
+        }
         try {
-            if (list) {
+            if (main.streaming() && (options.list || options.directory || options.tree || options.verify || options.recover || options.check || options.headers || options.summary || options.filter != null))
+                throw new IOException("standard input can only be walked record by record");
+            if (options.list) {
                 main.listContent();
+            } else if (options.directory) {
+                main.listDirectory();
+            } else if (options.tree) {
+                main.tree();
+            } else if (options.verify) {
+                return main.verify();
+            } else if (options.recover) {
+                main.recover();
+            } else if (options.check) {
+                return main.check();
+            } else if (options.headers) {
+                return main.headers();
+            } else if (options.summary) {
+                main.summary(options.top, options.totals);
             } else {
                 main.analyse();
             }
-        } catch (IOException ex) {
-            ex.printStackTrace();
+            return true;
+        } catch (IOException | UncheckedIOException ex) {
+            out.printf("%s: ", main.name());
+            ex.printStackTrace(out);
+            return false;
+        } finally {
+            if (main.stats != null) {
+                main.stats.report(out);
+            }
+        }
+    }
+
+    /** Compares the central directories of two archives, returns {@code false} if it failed. */
+    private static boolean diff(File previous, File next, Options options) {
+        var out = System.out;
+        Main before = null;
+        Main after = null;
+        try {
+            before = new Main(previous, null, options, out);
+            var first = before.index();
+            after = new Main(next, null, options, out);
+            var second = after.index();
+            var summary = new ArchiveDiff(out).compare(first, second);
+            out.printf("Diff %s %s: %s%n", previous, next, summary);
+            return true;
+        } catch (IOException | UncheckedIOException ex) {
+            ex.printStackTrace(out);
+            return false;
+        } finally {
+            for (var main : new Main[] { before, after }) {
+                if (main != null && main.stats != null) {
+                    out.printf("File: %s%n", main.name());
+                    main.stats.report(out);
+                }
+            }
         }
     }
 
@@ -61,48 +243,330 @@ public class Main {
             out.println();
         }
         out.println("""
-            Arguments: -h  |  [-l] <file>
+            Arguments: -h  |  [-l | -d | -t | --verify | --recover | --check | --headers | --summary] [--top=<n>] [--extra] [--stats]
+                              [-m <mode>] [-n <count>] [--format=<format>] [--fields=<name>,...]
+                              [--cache=<dir>] [--filter=<term>;...] <path>...
+                           |  --diff [-m <mode>] [--cache=<dir>] [--filter=<term>;...] <previous> <next>
+                           |  --serve=<socket> [-n <count>] [--cache=<dir>]
             
-                -h    show this help and closes
-                -l    list content using Java
-                file  the file to analyse
-            """);
+                -h        show this help and closes
+                -l        list content using Java
+                -d        list content of the central directory
+                -t        list entries as a tree, including the entries of nested archives
+                --verify  verify CRC and size of all entries, in parallel
+                --recover scan for the records of a damaged or truncated archive, in parallel
+                --check   check entries for overlaps, ranges outside the data and extreme ratios
+                --headers compare name, CRC, sizes, method and flags of the central directory with the
+                          local headers, read in file order, in parallel
+                --summary count entries, sizes and ratio histograms per method and extension, and list
+                          the largest and worst compressed entries; of all archives for many paths
+                --top     number of entries listed by --summary (default %d)
+                --extra   decode the extra fields listed with -d, text format only
+                --diff    list entries added (+), removed (-) and changed (~) in the next archive
+                --stats   show bytes read, reads, seeks and time reading and parsing
+                --serve   answer list, lookup, stat and verify requests, one per line, on a port of
+                          the loopback address or a Unix-domain socket path, keeping the archives
+                          open and their indexes cached; -n is the maximum of archives kept open
+                -m        input mode: direct, buffered, mapped (default) or cached
+                -n        maximum number of files open at the same time (default %d)
+                --format  output of the records: text (default), jsonl or csv
+                --fields  names of the fields to output, length fields end with " length"
+                --cache   directory to store the parsed central directory indexes
+                --filter  only the entries matching all terms, tested on the central directory
+                          for the walk, -d, --verify and --diff; terms:
+                            name=<glob>, name!=<glob>  * within a directory, ** across, ? one char
+                            name~<regex>               regular expression found in the name
+                            method=<stored|deflated|n> also !=
+                            size<op><n>[K|M|G], compressed<op><n>[K|M|G]  op: = != < <= > >=
+                            flags&<bits>, flags=<bits>, date<op><yyyy-mm-dd>
+                path      the file to analyse, a directory searched for zip, jar and war files,
+                          or @listfile with one path per line; or one HTTP URL, read with range
+                          requests through a block cache (not for -l, --verify, --headers and
+                          --recover); or - to walk the records read from standard input as they
+                          arrive
+            """.formatted(Summary.TOP, Options.OPEN));
         System.exit(message == null ? 0 : 1);
     }
     
     ////////////////////////////////////////////////////////////////////////////////////////////////
     
+    private static final class Options {
+        static final int OPEN = 64;
+        
+        boolean list = false;
+        boolean directory = false;
+        boolean tree = false;
+        boolean verify = false;
+        boolean recover = false;
+        boolean check = false;
+        boolean headers = false;
+        boolean extra = false;
+        boolean stats = false;
+        boolean diff = false;
+        boolean summary = false;
+        String serve = null;
+        int top = Summary.TOP;
+        /** Summary of all archives of a batch. */
+        Summary totals = null;
+        RandomAccessInput.Mode mode = RandomAccessInput.Mode.Mapped;
+        int open = OPEN;
+        Printer.Style style = Printer.Style.Text;
+        Set<String> fields = null;
+        IndexCache cache = null;
+        Filter filter = null;
+    }
+    
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+    
     private final File file;
+    private final URI uri;
+    private final RandomAccessInput.Mode mode;
+    private final PrintStream out;
+    private final Printer.Style style;
+    private final Set<String> fields;
+    private final IndexCache cache;
+    private final Filter filter;
+    private final boolean extra;
+    private final Stats stats;
     
-    private Main(String path) {
-        file = new File(path);
+    private Main(File file, URI uri, Options options, PrintStream out) {
+        this.file = file;
+        this.uri = uri;
+        this.mode = options.mode;
+        this.out = out;
+        this.style = options.style;
+        this.fields = options.fields;
+        this.cache = options.cache;
+        this.filter = options.filter;
+        this.extra = options.extra;
+        this.stats = options.stats ? new Stats(name()) : null;
     }
     
     private void listContent() throws IOException {
-        System.out.printf("File: %s%n", file.getAbsolutePath());
-        var zip = new ZipFile(file, ZipFile.OPEN_READ);
+        var zip = new ZipFile(local(), ZipFile.OPEN_READ);
         try (zip) {
             var entries = zip.entries();
             while (entries.hasMoreElements()) {
                 ZipEntry entry = entries.nextElement();
-                System.out.printf("  %s (%s)%n", entry.getName(), entry.getComment());
+                out.printf("  %s (%s)%n", entry.getName(), entry.getComment());
             }
             if (zip.getComment() != null) {
-                System.out.printf("Comment: \"%s\"%n", zip.getComment());
+                out.printf("Comment: \"%s\"%n", zip.getComment());
             }
         }
-        System.out.println("=".repeat(40));
+        out.println("=".repeat(40));
 
     }
     
+    private void listDirectory() throws IOException {
+        var input = open();
+        try (input; var printer = Printer.create(style, out, fields)) {
+            var directory = CentralDirectory.read(input);
+            if (filter == null) {
+                for (var entry : directory) {
+                    printHeader(printer, entry);
+                }
+            } else {
+                var index = DirectoryIndex.build(directory, filter);
+                for (var i = 0; i < index.size(); i++) {
+                    printHeader(printer, directory.entry(index.header(i)));
+                }
+            }
+            if (directory.zip64() != null) {
+                printer.entry(directory.zip64());
+            }
+            printer.entry(directory.end());
+        }
+    }
+    
+    private void printHeader(Printer printer, Entry entry) throws IOException {
+        printer.entry(entry);
+        var zip64 = Zip64Extra.resolve(entry);
+        if (zip64.present()) {
+            printer.comment(zip64.toString());
+        }
+        if (extra) {
+            for (var field : ExtraFields.of(entry)) {
+                if (field.id() != Zip64Extra.HEADER_ID) {
+                    printer.comment(field.toString());
+                }
+            }
+        }
+    }
+    
+    private String name() {
+        return (uri != null) ? uri.toString() : (file != null) ? file.getPath() : "-";
+    }
+    
+    /** If reading standard input, neither file nor URL given. */
+    private boolean streaming() {
+        return file == null && uri == null;
+    }
+    
+    /** The file, for the analyses not possible with an URL. */
+    private File local() throws IOException {
+        if (file == null)
+            throw new IOException("only supported for local files: " + name());
+        return file;
+    }
+    
+    private RandomAccessInput open() throws IOException {
+        RandomAccessInput input;
+        if (uri != null) {
+            input = RandomAccessInput.open(Sources.http(uri));
+        } else if (file != null) {
+            input = RandomAccessInput.open(file, mode);
+        } else {
+            input = RandomAccessInput.stream(System.in);
+        }
+        return (stats == null) ? input : RandomAccessInput.counting(input, stats);
+    }
+    
+    private void tree() throws IOException {
+        try (var input = open()) {
+            new ArchiveTree(out, ArchiveTree.LIMIT).print(name(), input);
+        }
+    }
+    
+    /** Returns {@code false} if any entry failed. */
+    private boolean verify() throws IOException {
+        var index = index();
+        try (var verifier = new Verifier(local(), stats)) {
+            var results = verifier.verify(index, ForkJoinPool.commonPool());
+            var counts = new int[Verifier.Status.values().length];
+            for (var result : results) {
+                counts[result.status().ordinal()] += 1;
+                if (result.status() != Verifier.Status.Ok) {
+                    out.println(result);
+                }
+            }
+            out.printf("Verified %d entries: %d ok, %d skipped, %d failed%n",
+                results.size(),
+                counts[Verifier.Status.Ok.ordinal()],
+                counts[Verifier.Status.Skipped.ordinal()],
+                counts[Verifier.Status.Failed.ordinal()]);
+            return counts[Verifier.Status.Failed.ordinal()] == 0;
+        }
+    }
+    
+    /** Returns {@code false} if anything was found. */
+    private boolean check() throws IOException {
+        try (var input = open()) {
+            var directory = CentralDirectory.read(input);
+            var index = DirectoryIndex.build(directory);
+            var findings = new RangeCheck(index, directory.offset(), RangeCheck.RATIO).check(input);
+            for (var finding : findings) {
+                out.println(finding);
+            }
+            out.printf("Checked %d entries: %d findings%n", index.size(), findings.size());
+            return findings.isEmpty();
+        }
+    }
+    
+    /** Returns {@code false} if any local header differs. */
+    private boolean headers() throws IOException {
+        var index = index();
+        try (var check = new HeaderCheck(local(), stats)) {
+            var mismatches = check.check(index, ForkJoinPool.commonPool());
+            for (var mismatch : mismatches) {
+                out.println(mismatch);
+            }
+            out.printf("Compared %d entries with their local headers: %d differ%n", index.size(), mismatches.size());
+            return mismatches.isEmpty();
+        }
+    }
+    
+    private void recover() throws IOException {
+        var input = open();
+        try (input; var recovery = new Recovery(local(), stats); var printer = Printer.create(style, out, fields)) {
+            var recovered = recovery.recover(input, ForkJoinPool.commonPool());
+            var counts = new int[EntryType.values().length];
+            for (var record : recovered) {
+                printer.entry(record.entry());
+                if (record.problem() != null) {
+                    printer.comment(record.problem());
+                }
+                counts[record.entry().type().ordinal()] += 1;
+            }
+            printer.comment("Recovered %d local file headers, %d data descriptors, %d central directory file headers, %d end records".formatted(
+                counts[EntryType.LocalFileHeader.ordinal()],
+                counts[EntryType.DataDescriptor.ordinal()] + counts[EntryType.Zip64DataDescriptor.ordinal()],
+                counts[EntryType.CentralDirectoryFileHeader.ordinal()],
+                counts[EntryType.EndOfCentralDirectory.ordinal()]));
+        }
+    }
+    
+    /**
+     * Prints the compression summary of the archive, or only its total if {@code totals} is given
+     * to merge it into.
+     */
+    private void summary(int top, Summary totals) throws IOException {
+        var summary = Summary.of(name(), index(), top, ForkJoinPool.commonPool());
+        if (totals == null) {
+            summary.print(out);
+        } else {
+            var total = summary.total();
+            out.printf("Summary: %d entries, %,d compressed, %,d original bytes%n", total.entries(), total.compressed(), total.original());
+            totals.merge(summary);
+        }
+    }
+    
+    private DirectoryIndex index() throws IOException {
+        try (var input = open()) {
+            return index(input);
+        }
+    }
+    
+    /** The index of the entries selected by the filter; the cache only holds complete indexes. */
+    private DirectoryIndex index(RandomAccessInput input) throws IOException {
+        if (cache != null && filter == null)
+            return cache.get(local(), input);
+        return DirectoryIndex.build(CentralDirectory.read(input), filter);
+    }
+    
     private void analyse() throws IOException {
-        var input = new RandomAccessInput(file);
-        try (input) {
-            while (true) {
-                System.out.println(format8(input.position()));
-                var entry = Entry.read(input);
-                System.out.println(entry);
-                break;  // XXX
+        if (filter != null) {
+            select();
+            return;
+        }
+        var input = open();
+        try (input; var walker = new RecordWalker(input); var printer = Printer.create(style, out, fields)) {
+            while (walker.hasNext()) {
+                printer.entry(walker.next());
+                if (streaming()) {
+                    // report each entry while the rest is still arriving
+                    printer.flush();
+                }
+            }
+        }
+    }
+    
+    /**
+     * Prints the local file header, data and data descriptor of the entries selected by the filter,
+     * in directory order. The filter is tested on the central directory so nothing else is read
+     * for the other entries, and the data is not read at all.
+     */
+    private void select() throws IOException {
+        var input = open();
+        try (input; var printer = Printer.create(style, out, fields)) {
+            var index = index(input);
+            for (var i = 0; i < index.size(); i++) {
+                input.seek(index.offset(i));
+                var header = Entry.read(input);
+                printer.entry(header);
+                if (header.type() != EntryType.LocalFileHeader)
+                    continue;
+                var position = input.position();
+                printer.entry(Entry.of(position, EntryType.FileData, index.compressed(i)));
+                if ((index.flags(i) & RecordWalker.FLAG_DESCRIPTOR) != 0) {
+                    position += index.compressed(i);
+                    var type = Zip64Extra.resolve(header).present() ? EntryType.Zip64DataDescriptor : EntryType.DataDescriptor;
+                    input.seek(position);
+                    if (input.readInt() != type.signature()) {
+                        input.seek(position);
+                    }
+                    printer.entry(Entry.read(position, type, input));
+                }
             }
         }
     }
@@ -0,0 +1,288 @@
+/*
+ * Copyright: Carlos F. Heuberger. All rights reserved.
+ *
+ */
+package cfh.zipinfo;
+
+import static java.util.Objects.*;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Set;
+
+/**
+ * Writes entries directly to a buffered output stream as text, JSON Lines or CSV.
+ *
+ * <p>Only the selected fields are written and a value is only formatted when written: JSON and CSV
+ * write the raw values, numbers and ASCII text byte by byte without creating intermediate strings.
+ * Length fields are named after the field they give the length of, with a {@code " length"} suffix.
+ *
+ * @author Carlos F. Heuberger, 2026-10-17
+ *
+ */
+public abstract class Printer implements AutoCloseable {
+
+    public enum Style {
+        Text,
+        Jsonl,
+        Csv;
+
+        public static Style parse(String name) {
+            for (var style : values()) {
+                if (style.name().equalsIgnoreCase(name))
+                    return style;
+            }
+            throw new IllegalArgumentException("unrecognized format: " + name);
+        }
+    }
+
+    /**
+     * Creates a printer writing to {@code out}; {@code fields} are the names of the fields to
+     * write, all if {@code null}.
+     */
+    public static Printer create(Style style, OutputStream out, Set<String> fields) {
+        return switch (style) {
+            case Text -> new TextPrinter(out, fields);
+            case Jsonl -> new JsonPrinter(out, fields);
+            case Csv -> new CsvPrinter(out, fields);
+        };
+    }
+
+    private static final byte[] HEX = "0123456789abcdef".getBytes();
+
+    private final OutputStream out;
+    private final Set<String> fields;
+    private final byte[] digits = new byte[20];
+
+    protected Printer(OutputStream out, Set<String> fields) {
+        this.out = new BufferedOutputStream(requireNonNull(out), RandomAccessInput.BLOCK_SIZE);
+        this.fields = fields;
+    }
+
+    public abstract void entry(Entry entry) throws IOException;
+
+    /** Additional information for humans, ignored by the machine-readable formats. */
+    public void comment(String text) throws IOException {
+    }
+
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    /** Flushes the buffer, does not close the underlying stream. */
+    @Override
+    public void close() throws IOException {
+        flush();
+    }
+
+    //----------------------------------------------------------------------------------------------
+
+    protected boolean selected(Field<?> field) {
+        return fields == null || fields.contains(name(field));
+    }
+
+    protected static String name(Field<?> field) {
+        var name = field.type().name();
+        return (field.type() instanceof FieldType.Length) ? name + " length" : name;
+    }
+
+    protected void write(int b) throws IOException {
+        out.write(b);
+    }
+
+    /** Writes a string containing only ASCII characters. */
+    protected void ascii(String text) throws IOException {
+        for (var i = 0; i < text.length(); i++) {
+            out.write(text.charAt(i));
+        }
+    }
+
+    /** Writes a string in UTF-8, {@code escape} returns the replacement of a character or {@code null}. */
+    protected void utf8(String text, Escape escape) throws IOException {
+        for (var i = 0; i < text.length(); i++) {
+            var ch = text.charAt(i);
+            var replacement = escape.replace(ch);
+            if (replacement != null) {
+                ascii(replacement);
+            } else if (ch < 0x80) {
+                out.write(ch);
+            } else if (ch < 0x800) {
+                out.write(0xC0 | (ch >> 6));
+                out.write(0x80 | (ch & 0x3F));
+            } else if (Character.isHighSurrogate(ch) && i + 1 < text.length() && Character.isLowSurrogate(text.charAt(i + 1))) {
+                var cp = Character.toCodePoint(ch, text.charAt(++i));
+                out.write(0xF0 | (cp >> 18));
+                out.write(0x80 | ((cp >> 12) & 0x3F));
+                out.write(0x80 | ((cp >> 6) & 0x3F));
+                out.write(0x80 | (cp & 0x3F));
+            } else {
+                out.write(0xE0 | (ch >> 12));
+                out.write(0x80 | ((ch >> 6) & 0x3F));
+                out.write(0x80 | (ch & 0x3F));
+            }
+        }
+    }
+
+    /** Writes a non-negative number in decimal. */
+    protected void number(long value) throws IOException {
+        if (value < 0) {
+            ascii(Long.toUnsignedString(value));
+            return;
+        }
+        var i = digits.length;
+        do {
+            digits[--i] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value != 0);
+        out.write(digits, i, digits.length - i);
+    }
+
+    protected void hex(byte[] bytes) throws IOException {
+        for (var b : bytes) {
+            out.write(HEX[(b >> 4) & 0x0F]);
+            out.write(HEX[b & 0x0F]);
+        }
+    }
+
+    /** Writes the value of a field, numbers unsigned in decimal, bytes in hexadecimal. */
+    protected void value(Object value, Escape escape) throws IOException {
+        if (value instanceof Short s) {
+            number(Short.toUnsignedLong(s));
+        } else if (value instanceof Integer i) {
+            number(Integer.toUnsignedLong(i));
+        } else if (value instanceof Long l) {
+            number(l);
+        } else if (value instanceof byte[] bytes) {
+            hex(bytes);
+        } else if (value instanceof ZipString text) {
+            text(text, escape);
+        } else {
+            utf8(String.valueOf(value), escape);
+        }
+    }
+
+    /** Writes the raw bytes if ASCII and not escaped, without decoding; otherwise the decoded text. */
+    private void text(ZipString text, Escape escape) throws IOException {
+        var bytes = text.bytes();
+        for (var b : bytes) {
+            if (b < 0x20 || escape.replace((char) b) != null) {
+                utf8(text.toString(), escape);
+                return;
+            }
+        }
+        out.write(bytes);
+    }
+
+    @FunctionalInterface
+    protected interface Escape {
+        String replace(char ch);
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /** Same output as {@link Entry#toString()}. */
+    static final class TextPrinter extends Printer {
+        TextPrinter(OutputStream out, Set<String> fields) {
+            super(out, fields);
+        }
+        @Override
+        public void entry(Entry entry) throws IOException {
+            ascii(entry.type().name());
+            ascii(" (0x");
+            ascii(Long.toHexString(entry.position()));
+            ascii(")\n");
+            for (var field : entry.fields()) {
+                if (selected(field)) {
+                    ascii("    ");
+                    utf8(field.toString(), ch -> null);
+                    write('\n');
+                }
+            }
+            write('\n');
+        }
+        @Override
+        public void comment(String text) throws IOException {
+            ascii("    ");
+            utf8(text, ch -> null);
+            ascii("\n\n");
+        }
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /** One JSON object per line. */
+    static final class JsonPrinter extends Printer {
+        private static final String[] CONTROL = new String[0x20];
+        static {
+            for (var i = 0; i < CONTROL.length; i++) {
+                CONTROL[i] = "\\u%04x".formatted(i);
+            }
+            CONTROL['\n'] = "\\n";
+            CONTROL['\r'] = "\\r";
+            CONTROL['\t'] = "\\t";
+        }
+        private static final Escape ESCAPE = ch -> switch (ch) {
+            case '"' -> "\\\"";
+            case '\\' -> "\\\\";
+            default -> ch < 0x20 ? CONTROL[ch] : null;
+        };
+        JsonPrinter(OutputStream out, Set<String> fields) {
+            super(out, fields);
+        }
+        @Override
+        public void entry(Entry entry) throws IOException {
+            ascii("{\"type\":\"");
+            ascii(entry.type().name());
+            ascii("\",\"position\":");
+            number(entry.position());
+            for (var field : entry.fields()) {
+                if (selected(field)) {
+                    ascii(",\"");
+                    utf8(name(field), ESCAPE);
+                    ascii("\":");
+                    var value = field.value();
+                    var quoted = value instanceof ZipString || value instanceof String || value instanceof byte[];
+                    if (quoted) {
+                        write('"');
+                    }
+                    value(value, ESCAPE);
+                    if (quoted) {
+                        write('"');
+                    }
+                }
+            }
+            ascii("}\n");
+        }
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /** One row per field: position, type, field and value, since each type has other fields. */
+    static final class CsvPrinter extends Printer {
+        private static final Escape ESCAPE = ch -> ch == '"' ? "\"\"" : null;
+        private boolean header = true;
+        CsvPrinter(OutputStream out, Set<String> fields) {
+            super(out, fields);
+        }
+        @Override
+        public void entry(Entry entry) throws IOException {
+            if (header) {
+                ascii("position,type,field,value\r\n");
+                header = false;
+            }
+            for (var field : entry.fields()) {
+                if (selected(field)) {
+                    number(entry.position());
+                    write(',');
+                    ascii(entry.type().name());
+                    write(',');
+                    utf8(name(field), ESCAPE);
+                    ascii(",\"");
+                    value(field.value(), ESCAPE);
+                    ascii("\"\r\n");
+                }
+            }
+        }
+    }
+}
@@ -4,87 +4,860 @@
  */
 package cfh.zipinfo;
 
+import static java.util.Objects.*;
+
+import java.io.EOFException;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.RandomAccessFile;
-import java.nio.charset.StandardCharsets;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SeekableByteChannel;
 
 /**
+ * Little-endian random access to the bytes of a ZIP file.
+ *
+ * <p>Use {@link #open(File, Mode)} to choose the backend: {@link Mode#Direct} reads each value
+ * from the {@code RandomAccessFile}, {@link Mode#Buffered} reads blocks of {@value #BLOCK_SIZE}
+ * bytes, {@link Mode#Mapped} maps the file in a few reused regions of {@value #WINDOW_SIZE} bytes and
+ * {@link Mode#Cached} reads it through a block cache. Any other source, like a HTTP server, can
+ * be read as {@code SeekableByteChannel} using {@link #open(SeekableByteChannel)}.
+ *
  * @author Carlos F. Heuberger, 2022-10-31
  *
  */
-public class RandomAccessInput implements AutoCloseable {
-
-    private final RandomAccessFile input;
-    
-    RandomAccessInput(File file) throws FileNotFoundException {
-        input = new RandomAccessFile(file, "r");
-    }
-    
-    public long position() throws IOException {
-        return input.getFilePointer();
-    }
-    
-    public int read() throws IOException {
-        long position = input.getFilePointer();
-        try {
-            return input.read();
-        } catch (IOException ex) {
-            throw (IOException) new IOException("exception at position %d (%1$x)".formatted(position)).initCause(ex);
-        }
-    }
-    
-    public byte readByte() throws IOException {
-        long position = input.getFilePointer();
-        try {
-            return input.readByte();
-        } catch (IOException ex) {
-            throw (IOException) new IOException("at %d (%1$x)".formatted(position)).initCause(ex);
-        }
-    }
-    
-    public short reaShort() throws IOException {
-        long position = input.getFilePointer();
-        try {
-            return Short.reverseBytes(input.readShort());
-        } catch (IOException ex) {
-            throw (IOException) new IOException("at %d (%1$x)".formatted(position)).initCause(ex);
-        }
-    }
-    
-    public int readInt() throws IOException {
-        long position = input.getFilePointer();
-        try {
-            return Integer.reverseBytes(input.readInt());
-        } catch (IOException ex) {
-            throw (IOException) new IOException("at %d (%1$x)".formatted(position)).initCause(ex);
-        }
-    }
-    
-    public byte[] readBytes(int length) throws IOException {
-        long position = input.getFilePointer();
-        try {
-            var bytes = new byte[length];
-            input.readFully(bytes);
-            return bytes;
-        } catch (IOException ex) {
-            throw (IOException) new IOException("at %d (%1$x)".formatted(position)).initCause(ex);
+public abstract class RandomAccessInput implements AutoCloseable {
+
+    public static final int BLOCK_SIZE = 64 * 1024;
+    public static final int WINDOW_SIZE = 1 << 30;
+    public static final int CACHE_BLOCKS = 256;
+    public static final int READ_AHEAD = 16;
+
+    public enum Mode {
+        Direct,
+        Buffered,
+        Mapped,
+        Cached;
+
+        public static Mode parse(String name) {
+            for (var mode : values()) {
+                if (mode.name().equalsIgnoreCase(name))
+                    return mode;
+            }
+            throw new IllegalArgumentException("unrecognized mode: " + name);
         }
     }
-    
-    public String readText(int length) throws IOException {
-        var bytes = readBytes(length);
-        return new String(bytes, StandardCharsets.UTF_8);
+
+    public static RandomAccessInput open(File file, Mode mode) throws IOException {
+        return switch (mode) {
+            case Direct -> new DirectInput(file);
+            case Buffered -> new BufferedInput(file, BLOCK_SIZE);
+            case Mapped -> new MappedInput(file, WINDOW_SIZE);
+            case Cached -> open(Sources.file(file.toPath()));
+        };
+    }
+
+    /**
+     * Reads {@code channel} through a cache of {@value #CACHE_BLOCKS} blocks of {@value #BLOCK_SIZE}
+     * bytes, reading up to {@value #READ_AHEAD} blocks ahead; the channel is closed with the input.
+     */
+    public static RandomAccessInput open(SeekableByteChannel channel) throws IOException {
+        return new ChannelInput(new BlockCache(channel, BLOCK_SIZE, CACHE_BLOCKS, READ_AHEAD));
+    }
+
+    /** In-memory input over {@code bytes}, the first byte being at position {@code base}. */
+    public static RandomAccessInput wrap(byte[] bytes, long base) throws IOException {
+        var input = new BufferInput(ByteBuffer.wrap(bytes), base);
+        input.seek(base);
+        return input;
+    }
+
+    /** In-memory input over the remaining bytes of {@code buffer}, the first byte being at position 0. */
+    public static RandomAccessInput wrap(ByteBuffer buffer) {
+        return new BufferInput(buffer.slice(), 0);
+    }
+
+    /**
+     * Forward-only input reading {@code in} as it arrives, for archives that cannot be seeked like
+     * standard input; only seeks back by at most {@value #BLOCK_SIZE} bytes are possible and the
+     * length is only known near the end of the stream. The stream is closed with the input.
+     */
+    public static RandomAccessInput stream(InputStream in) {
+        return new StreamInput(in);
+    }
+
+    /** Input counting the reads and seeks of {@code input} in {@code stats}. */
+    public static RandomAccessInput counting(RandomAccessInput input, Stats stats) {
+        return new CountingInput(input, stats);
+    }
+
+    //----------------------------------------------------------------------------------------------
+
+    public abstract long position() throws IOException;
+
+    public abstract void seek(long position) throws IOException;
+
+    public abstract long length() throws IOException;
+
+    public abstract int read() throws IOException;
+
+    public abstract byte readByte() throws IOException;
+
+    public abstract short reaShort() throws IOException;
+
+    public abstract int readInt() throws IOException;
+
+    public abstract long readLong() throws IOException;
+
+    public abstract void readFully(byte[] bytes, int offset, int length) throws IOException;
+
+    public byte[] readBytes(int length) throws IOException {
+        var bytes = new byte[length];
+        readFully(bytes, 0, length);
+        return bytes;
+    }
+
+    /** Reads the raw bytes of a text, decoded later as UTF-8 or CP437. */
+    public ZipString readText(int length, boolean utf8) throws IOException {
+        return new ZipString(readBytes(length), utf8);
+    }
+
+    /**
+     * Input over the {@code length} bytes starting at {@code start}, for example an archive stored
+     * inside this one; its positions are relative to {@code start}. The bytes are not copied, by
+     * default each read of the slice seeks this input, so both must not be used concurrently.
+     */
+    public RandomAccessInput slice(long start, long length) throws IOException {
+        if (start < 0 || length < 0 || start + length > length())
+            throw new EOFException("slice of %d bytes at %d (%2$x)".formatted(length, start));
+        return new SliceInput(this, start, length);
     }
 
     @Override
-    public void close() throws IOException {
-        long position = input.getFilePointer();
-        try {
+    public abstract void close() throws IOException;
+
+    protected static IOException exception(long position, IOException cause) {
+        return (IOException) new IOException("at %d (%1$x)".formatted(position)).initCause(cause);
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /** Each read goes directly to the {@code RandomAccessFile}. */
+    static final class DirectInput extends RandomAccessInput {
+
+        private final RandomAccessFile input;
+
+        DirectInput(File file) throws FileNotFoundException {
+            input = new RandomAccessFile(file, "r");
+        }
+
+        @Override
+        public long position() throws IOException {
+            return input.getFilePointer();
+        }
+
+        @Override
+        public void seek(long position) throws IOException {
+            input.seek(position);
+        }
+
+        @Override
+        public long length() throws IOException {
+            return input.length();
+        }
+
+        @Override
+        public int read() throws IOException {
+            long position = input.getFilePointer();
+            try {
+                return input.read();
+            } catch (IOException ex) {
+                throw (IOException) new IOException("exception at position %d (%1$x)".formatted(position)).initCause(ex);
+            }
+        }
+
+        @Override
+        public byte readByte() throws IOException {
+            long position = input.getFilePointer();
+            try {
+                return input.readByte();
+            } catch (IOException ex) {
+                throw exception(position, ex);
+            }
+        }
+
+        @Override
+        public short reaShort() throws IOException {
+            long position = input.getFilePointer();
+            try {
+                return Short.reverseBytes(input.readShort());
+            } catch (IOException ex) {
+                throw exception(position, ex);
+            }
+        }
+
+        @Override
+        public int readInt() throws IOException {
+            long position = input.getFilePointer();
+            try {
+                return Integer.reverseBytes(input.readInt());
+            } catch (IOException ex) {
+                throw exception(position, ex);
+            }
+        }
+
+        @Override
+        public long readLong() throws IOException {
+            long position = input.getFilePointer();
+            try {
+                return Long.reverseBytes(input.readLong());
+            } catch (IOException ex) {
+                throw exception(position, ex);
+            }
+        }
+
+        @Override
+        public void readFully(byte[] bytes, int offset, int length) throws IOException {
+            long position = input.getFilePointer();
+            try {
+                input.readFully(bytes, offset, length);
+            } catch (IOException ex) {
+                throw exception(position, ex);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            long position = input.getFilePointer();
+            try {
+                input.close();
+            } catch (IOException ex) {
+                throw exception(position, ex);
+            }
+        }
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Reads from a little-endian {@code ByteBuffer} window, the subclasses only provide the window
+     * for a given position; values are decoded without any system call while inside the window.
+     */
+    abstract static class WindowInput extends RandomAccessInput {
+
+        private static final ByteBuffer EMPTY = ByteBuffer.allocate(0);
+
+        private ByteBuffer window = EMPTY;
+        private long start = 0;
+        private long position = 0;
+
+        /** Returns a little-endian window whose index 0 is at {@code position}, empty at end of input. */
+        protected abstract ByteBuffer window(long position) throws IOException;
+
+        @Override
+        public long position() {
+            return position;
+        }
+
+        @Override
+        public void seek(long position) throws IOException {
+            if (position < 0)
+                throw new IOException("negative position: " + position);
+            this.position = position;
+        }
+
+        @Override
+        public int read() throws IOException {
+            return (position < length()) ? readByte() & 0xFF : -1;
+        }
+
+        @Override
+        public byte readByte() throws IOException {
+            var index = index(Byte.BYTES);
+            return window.get(index);
+        }
+
+        @Override
+        public short reaShort() throws IOException {
+            var index = index(Short.BYTES);
+            return window.getShort(index);
+        }
+
+        @Override
+        public int readInt() throws IOException {
+            var index = index(Integer.BYTES);
+            return window.getInt(index);
+        }
+
+        @Override
+        public long readLong() throws IOException {
+            var index = index(Long.BYTES);
+            return window.getLong(index);
+        }
+
+        @Override
+        public void readFully(byte[] bytes, int offset, int length) throws IOException {
+            while (length > 0) {
+                var index = position - start;
+                if (index < 0 || index >= window.limit()) {
+                    move();
+                    index = 0;
+                    if (window.limit() == 0)
+                        throw new EOFException("at %d (%1$x)".formatted(position));
+                }
+                var count = Math.min(length, window.limit() - (int) index);
+                window.get((int) index, bytes, offset, count);
+                position += count;
+                offset += count;
+                length -= count;
+            }
+        }
+
+        /** Index of the next {@code count} bytes in the window, moving the window if needed. */
+        private int index(int count) throws IOException {
+            var index = position - start;
+            if (index < 0 || index + count > window.limit()) {
+                move();
+                index = 0;
+                if (count > window.limit())
+                    throw new EOFException("at %d (%1$x)".formatted(position));
+            }
+            position += count;
+            return (int) index;
+        }
+
+        private void move() throws IOException {
+            window = window(position);
+            start = position;
+        }
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /** Reads from a buffer already in memory, for example a bulk read part of the file or a mapped slice. */
+    static final class BufferInput extends WindowInput {
+
+        private final ByteBuffer buffer;
+        private final long base;
+
+        BufferInput(ByteBuffer buffer, long base) {
+            this.buffer = buffer;
+            this.base = base;
+        }
+
+        @Override
+        public long length() {
+            return base + buffer.limit();
+        }
+
+        @Override
+        protected ByteBuffer window(long position) {
+            if (position < base || position >= length())
+                return ByteBuffer.allocate(0);
+            var index = (int) (position - base);
+            return buffer.slice(index, buffer.limit() - index).order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        @Override
+        public RandomAccessInput slice(long start, long length) throws IOException {
+            if (start < base || length < 0 || start + length > length())
+                throw new EOFException("slice of %d bytes at %d (%2$x)".formatted(length, start));
+            return new BufferInput(buffer.slice((int) (start - base), (int) length), 0);
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /** Part of another input, each read seeks the other input. */
+    static final class SliceInput extends RandomAccessInput {
+
+        private final RandomAccessInput input;
+        private final long start;
+        private final long length;
+        private long position = 0;
+
+        SliceInput(RandomAccessInput input, long start, long length) {
+            this.input = input;
+            this.start = start;
+            this.length = length;
+        }
+
+        @Override
+        public long position() {
+            return position;
+        }
+
+        @Override
+        public void seek(long position) throws IOException {
+            if (position < 0)
+                throw new IOException("negative position: " + position);
+            this.position = position;
+        }
+
+        @Override
+        public long length() {
+            return length;
+        }
+
+        @Override
+        public int read() throws IOException {
+            return (position < length) ? readByte() & 0xFF : -1;
+        }
+
+        @Override
+        public byte readByte() throws IOException {
+            return move(Byte.BYTES).readByte();
+        }
+
+        @Override
+        public short reaShort() throws IOException {
+            return move(Short.BYTES).reaShort();
+        }
+
+        @Override
+        public int readInt() throws IOException {
+            return move(Integer.BYTES).readInt();
+        }
+
+        @Override
+        public long readLong() throws IOException {
+            return move(Long.BYTES).readLong();
+        }
+
+        @Override
+        public void readFully(byte[] bytes, int offset, int length) throws IOException {
+            move(length).readFully(bytes, offset, length);
+        }
+
+        /** Seeks the underlying input to read the next {@code count} bytes. */
+        private RandomAccessInput move(int count) throws IOException {
+            if (position + count > length)
+                throw new EOFException("at %d (%1$x)".formatted(position));
+            input.seek(start + position);
+            position += count;
+            return input;
+        }
+
+        /** The underlying input is not closed. */
+        @Override
+        public void close() {
+        }
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /** Reads the file in blocks into one reused buffer. */
+    static final class BufferedInput extends WindowInput {
+
+        private final FileChannel channel;
+        private final ByteBuffer buffer;
+
+        BufferedInput(File file, int blockSize) throws IOException {
+            channel = new RandomAccessFile(file, "r").getChannel();
+            buffer = ByteBuffer.allocateDirect(blockSize).order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        @Override
+        public long length() throws IOException {
+            return channel.size();
+        }
+
+        @Override
+        protected ByteBuffer window(long position) throws IOException {
+            buffer.clear();
+            try {
+                while (buffer.hasRemaining()) {
+                    if (channel.read(buffer, position + buffer.position()) == -1)
+                        break;
+                }
+            } catch (IOException ex) {
+                throw exception(position, ex);
+            }
+            return buffer.flip();
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Reads a stream into a buffer of fixed size which keeps the last {@value #BLOCK_SIZE} bytes
+     * before the position, so the memory does not depend on the length of the stream.
+     */
+    static final class StreamInput extends RandomAccessInput {
+
+        private final InputStream in;
+        private final byte[] bytes = new byte[3 * BLOCK_SIZE];
+        private final ByteBuffer buffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        private long start = 0;     // position of bytes[0]
+        private int end = 0;        // number of bytes in the buffer
+        private long position = 0;
+        private boolean eof = false;
+
+        StreamInput(InputStream in) {
+            this.in = requireNonNull(in);
+        }
+
+        @Override
+        public long position() {
+            return position;
+        }
+
+        @Override
+        public void seek(long position) throws IOException {
+            if (position < start)
+                throw new IOException("cannot seek back to %d (%1$x) in a stream, at %d (%2$x)".formatted(position, this.position));
+            this.position = position;
+        }
+
+        /**
+         * The length once the end of the stream was read, which is done as soon as it is less than
+         * {@value #BLOCK_SIZE} bytes after the position; {@code Long.MAX_VALUE} before.
+         */
+        @Override
+        public long length() throws IOException {
+            fill(position + BLOCK_SIZE + 1);
+            return eof ? start + end : Long.MAX_VALUE;
+        }
+
+        @Override
+        public int read() throws IOException {
+            fill(position + 1);
+            return (position < start + end) ? readByte() & 0xFF : -1;
+        }
+
+        @Override
+        public byte readByte() throws IOException {
+            return buffer.get(index(Byte.BYTES));
+        }
+
+        @Override
+        public short reaShort() throws IOException {
+            return buffer.getShort(index(Short.BYTES));
+        }
+
+        @Override
+        public int readInt() throws IOException {
+            return buffer.getInt(index(Integer.BYTES));
+        }
+
+        @Override
+        public long readLong() throws IOException {
+            return buffer.getLong(index(Long.BYTES));
+        }
+
+        @Override
+        public void readFully(byte[] bytes, int offset, int length) throws IOException {
+            while (length > 0) {
+                var count = Math.min(length, BLOCK_SIZE);
+                System.arraycopy(this.bytes, index(count), bytes, offset, count);
+                offset += count;
+                length -= count;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+
+        /** Index of the next {@code count} bytes in the buffer, reading them if needed. */
+        private int index(int count) throws IOException {
+            fill(position + count);
+            if (position + count > start + end)
+                throw new EOFException("at %d (%1$x)".formatted(position));
+            var index = (int) (position - start);
+            position += count;
+            return index;
+        }
+
+        /** Reads until the buffer contains the bytes before {@code until} or the end of the stream. */
+        private void fill(long until) throws IOException {
+            try {
+                while (position > start + end && !eof) {
+                    // discard the bytes between the buffer and the position, pipes cannot skip
+                    start += end;
+                    var count = in.read(bytes, 0, (int) Math.min(bytes.length, position - start));
+                    if (count == -1) {
+                        eof = true;
+                        end = 0;
+                    } else {
+                        end = count;
+                    }
+                }
+                while (start + end < until && !eof) {
+                    if (end == bytes.length) {
+                        var keep = Math.max(start, position - BLOCK_SIZE);
+                        var shift = (int) (keep - start);
+                        System.arraycopy(bytes, shift, bytes, 0, end - shift);
+                        start = keep;
+                        end -= shift;
+                    }
+                    var count = in.read(bytes, end, bytes.length - end);
+                    if (count == -1) {
+                        eof = true;
+                    } else {
+                        end += count;
+                    }
+                }
+            } catch (IOException ex) {
+                throw exception(position, ex);
+            }
+        }
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /** Counts the reads and seeks of another input, timing each read. */
+    static final class CountingInput extends RandomAccessInput {
+
+        private final RandomAccessInput input;
+        private final Stats stats;
+
+        CountingInput(RandomAccessInput input, Stats stats) {
+            this.input = input;
+            this.stats = stats;
+        }
+
+        @Override
+        public long position() throws IOException {
+            return input.position();
+        }
+
+        @Override
+        public void seek(long position) throws IOException {
+            stats.seek();
+            input.seek(position);
+        }
+
+        @Override
+        public long length() throws IOException {
+            return input.length();
+        }
+
+        @Override
+        public int read() throws IOException {
+            var start = System.nanoTime();
+            var value = input.read();
+            stats.read(value == -1 ? 0 : 1, System.nanoTime() - start);
+            return value;
+        }
+
+        @Override
+        public byte readByte() throws IOException {
+            var start = System.nanoTime();
+            var value = input.readByte();
+            stats.read(Byte.BYTES, System.nanoTime() - start);
+            return value;
+        }
+
+        @Override
+        public short reaShort() throws IOException {
+            var start = System.nanoTime();
+            var value = input.reaShort();
+            stats.read(Short.BYTES, System.nanoTime() - start);
+            return value;
+        }
+
+        @Override
+        public int readInt() throws IOException {
+            var start = System.nanoTime();
+            var value = input.readInt();
+            stats.read(Integer.BYTES, System.nanoTime() - start);
+            return value;
+        }
+
+        @Override
+        public long readLong() throws IOException {
+            var start = System.nanoTime();
+            var value = input.readLong();
+            stats.read(Long.BYTES, System.nanoTime() - start);
+            return value;
+        }
+
+        @Override
+        public void readFully(byte[] bytes, int offset, int length) throws IOException {
+            var start = System.nanoTime();
+            input.readFully(bytes, offset, length);
+            stats.read(length, System.nanoTime() - start);
+        }
+
+        /** The slice of the other input, also counted. */
+        @Override
+        public RandomAccessInput slice(long start, long length) throws IOException {
+            return new CountingInput(input.slice(start, length), stats);
+        }
+
+        @Override
+        public void close() throws IOException {
             input.close();
-        } catch (IOException ex) {
-            throw (IOException) new IOException("at %d (%1$x)".formatted(position)).initCause(ex);
+        }
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /** Reads a channel through a block cache. */
+    static final class ChannelInput extends WindowInput {
+
+        private final BlockCache cache;
+
+        ChannelInput(BlockCache cache) {
+            this.cache = cache;
+        }
+
+        @Override
+        public long length() {
+            return cache.size();
+        }
+
+        /**
+         * The rest of the block containing {@code position}; joined with the start of the next
+         * block if too short for a {@code long}.
+         */
+        @Override
+        protected ByteBuffer window(long position) throws IOException {
+            var size = cache.blockSize();
+            var block = cache.block(position / size);
+            var index = (int) (position % size);
+            if (index >= block.limit())
+                return ByteBuffer.allocate(0);
+            block = block.slice(index, block.limit() - index).order(ByteOrder.LITTLE_ENDIAN);
+            if (block.limit() >= Long.BYTES || position + block.limit() >= cache.size())
+                return block;
+            var next = cache.block(position / size + 1);
+            var joined = ByteBuffer.allocate(block.limit() + Math.min(Long.BYTES, next.limit()));
+            joined.put(block).put(next.limit(Math.min(Long.BYTES, next.limit())));
+            return joined.flip().order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        @Override
+        public void close() throws IOException {
+            cache.close();
+        }
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Maps the file in regions starting at multiples of the window size, each extended by
+     * {@link #OVERLAP} bytes so a record crossing the boundary is in one region. The last
+     * {@link #REGIONS} regions used are kept, a window is a slice of its region: moving the window,
+     * forward or back, only maps again when the region of the position is not kept.
+     */
+    static final class MappedInput extends WindowInput {
+
+        /** Bytes a region extends into the next one. */
+        static final int OVERLAP = 1 << 20;
+
+        /** Number of regions kept mapped. */
+        static final int REGIONS = 4;
+
+        private final FileChannel channel;
+        private final long length;
+        private final int windowSize;
+        /** Most recently used first. */
+        private final long[] starts = new long[REGIONS];
+        private final ByteBuffer[] regions = new ByteBuffer[REGIONS];
+
+        MappedInput(File file, int windowSize) throws IOException {
+            channel = new RandomAccessFile(file, "r").getChannel();
+            length = channel.size();
+            this.windowSize = windowSize;
+        }
+
+        @Override
+        public long length() {
+            return length;
+        }
+
+        @Override
+        protected ByteBuffer window(long position) throws IOException {
+            if (position >= length)
+                return ByteBuffer.allocate(0);
+            var region = region(position);
+            var index = (int) (position % windowSize);
+            return region.slice(index, region.limit() - index).order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        /**
+         * Reads into {@code dst} from {@code position} on, like {@link FileChannel#read(ByteBuffer,
+         * long)}, without moving the window; can be used by many threads, also while the window
+         * is used by one.
+         */
+        int read(ByteBuffer dst, long position) throws IOException {
+            if (position >= length)
+                return -1;
+            var region = region(position);
+            var index = (int) (position % windowSize);
+            var count = Math.min(dst.remaining(), region.limit() - index);
+            dst.put(dst.position(), region, index, count);
+            dst.position(dst.position() + count);
+            return count;
+        }
+
+        /** Slices up to the window size are slices of a region, or mapped on their own if crossing regions. */
+        @Override
+        public RandomAccessInput slice(long start, long length) throws IOException {
+            if (length > windowSize || start < 0 || length < 0 || start + length > this.length)
+                return super.slice(start, length);
+            if (length == 0)
+                return new BufferInput(ByteBuffer.allocate(0), 0);
+            var region = region(start);
+            var index = start % windowSize;
+            if (index + length <= region.limit())
+                return new BufferInput(region.slice((int) index, (int) length), 0);
+            try {
+                return new BufferInput(channel.map(FileChannel.MapMode.READ_ONLY, start, length), 0);
+            } catch (IOException ex) {
+                throw exception(start, ex);
+            }
+        }
+
+        /**
+         * The region of the grid cell containing {@code position}, moved to the front, mapped if
+         * not kept. Only that region has at least {@link #OVERLAP} bytes after {@code position},
+         * up to the end of the file; the overlap of the previous region may end just after it.
+         */
+        private synchronized ByteBuffer region(long position) throws IOException {
+            var start = position / windowSize * windowSize;
+            var found = REGIONS - 1;
+            for (var i = 0; i < REGIONS; i++) {
+                if (regions[i] != null && starts[i] == start) {
+                    found = i;
+                    break;
+                }
+            }
+            var region = regions[found];
+            if (region == null || starts[found] != start) {
+                // replaces the least recently used
+                var size = Math.min((long) windowSize + OVERLAP, length - start);
+                try {
+                    region = channel.map(FileChannel.MapMode.READ_ONLY, start, size);
+                } catch (IOException ex) {
+                    throw exception(position, ex);
+                }
+            }
+            System.arraycopy(starts, 0, starts, 1, found);
+            System.arraycopy(regions, 0, regions, 1, found);
+            starts[0] = start;
+            regions[0] = region;
+            return region;
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
         }
     }
 }
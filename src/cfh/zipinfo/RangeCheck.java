@@ -0,0 +1,128 @@
+/*
+ * Copyright: Carlos F. Heuberger. All rights reserved.
+ *
+ */
+package cfh.zipinfo;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Checks the byte ranges of the entries, from the local file header to the end of the data and
+ * data descriptor, for overlaps, ranges reaching into the central directory or past the end of
+ * the file, and extreme compression ratios, as used by zip bombs.
+ *
+ * <p>The ranges are sorted by their start and swept once keeping the range reaching furthest, so
+ * the check takes O(n log n) for n entries; the local headers are read in the order of the file.
+ *
+ * @author Carlos F. Heuberger, 2026-10-17
+ *
+ */
+public final class RangeCheck {
+
+    /** Default limit of the ratio of uncompressed to compressed size. */
+    public static final int RATIO = 100;
+
+    public enum Kind { Header, Overlap, Directory, Outside, Ratio }
+
+    public record Finding(Kind kind, String name, long offset, String message) {
+        @Override
+        public String toString() {
+            return "%s %s (0x%x): %s".formatted(kind, name, offset, message);
+        }
+    }
+
+    private final DirectoryIndex index;
+    private final long directory;
+    private final int ratio;
+
+    /**
+     * @param index the entries to check
+     * @param directory position of the central directory, everything after it belongs to the
+     *        directory and end records
+     * @param ratio limit of the ratio of uncompressed to compressed size, of an entry and of the
+     *        whole archive
+     */
+    public RangeCheck(DirectoryIndex index, long directory, int ratio) {
+        this.index = index;
+        this.directory = directory;
+        this.ratio = ratio;
+    }
+
+    /** Checks all entries reading their local headers from {@code input}, returns the findings in file order. */
+    public List<Finding> check(RandomAccessInput input) throws IOException {
+        var findings = new ArrayList<Finding>();
+        var length = input.length();
+        var maxEnd = -1L;
+        var maxEntry = -1;
+        var total = 0L;
+        for (var i : index.byOffset()) {
+            var offset = index.offset(i);
+            var compressed = index.compressed(i);
+            var original = index.original(i);
+            total += original;
+            if (compressed == 0 ? original > 0 : original / compressed >= ratio) {
+                findings.add(finding(Kind.Ratio, i, "%d bytes compressed to %d".formatted(original, compressed)));
+            }
+
+            var end = end(input, i);
+            if (end < 0) {
+                findings.add(finding(Kind.Header, i, "no local file header"));
+                continue;
+            }
+            if (offset < maxEnd) {
+                findings.add(finding(Kind.Overlap, i, "0x%x-0x%x overlaps %s 0x%x-0x%x".formatted(
+                    offset, end, index.name(maxEntry), index.offset(maxEntry), maxEnd)));
+            }
+            if (end > maxEnd) {
+                maxEnd = end;
+                maxEntry = i;
+            }
+            if (end > length) {
+                findings.add(finding(Kind.Outside, i, "ends at 0x%x after the end of the file at 0x%x".formatted(end, length)));
+            } else if (end > directory) {
+                findings.add(finding(Kind.Directory, i, "ends at 0x%x in the central directory at 0x%x".formatted(end, directory)));
+            }
+        }
+        if (length > 0 && total / length >= ratio) {
+            findings.add(new Finding(Kind.Ratio, "archive", 0, "%d bytes in a file of %d".formatted(total, length)));
+        }
+        return findings;
+    }
+
+    //----------------------------------------------------------------------------------------------
+
+    /** End of the data and data descriptor of the entry, -1 if the local header is missing. */
+    private long end(RandomAccessInput input, int entry) throws IOException {
+        var offset = index.offset(entry);
+        if (offset + Verifier.LOCAL_HEADER_SIZE > input.length())
+            return -1;
+        input.seek(offset);
+        if (input.readInt() != EntryType.LocalFileHeader.signature())
+            return -1;
+        input.seek(offset + 26);
+        var nameLength = Short.toUnsignedInt(input.reaShort());
+        var extraLength = Short.toUnsignedInt(input.reaShort());
+        var end = offset + Verifier.LOCAL_HEADER_SIZE + nameLength + extraLength + index.compressed(entry);
+        if ((index.flags(entry) & RecordWalker.FLAG_DESCRIPTOR) != 0) {
+            var zip64 = false;
+            if (extraLength > 0 && offset + Verifier.LOCAL_HEADER_SIZE + nameLength + extraLength <= input.length()) {
+                input.seek(offset + Verifier.LOCAL_HEADER_SIZE + nameLength);
+                zip64 = ExtraFields.of(input.readBytes(extraLength), 0, extraLength).find(Zip64Extra.HEADER_ID) != null;
+            }
+            if (end + 4 <= input.length()) {
+                input.seek(end);
+                if (input.readInt() == EntryType.DataDescriptor.signature()) {
+                    end += 4;
+                }
+            }
+            end += zip64 ? 20 : 12;
+        }
+        return end;
+    }
+
+    private Finding finding(Kind kind, int entry, String message) {
+        return new Finding(kind, index.name(entry), index.offset(entry), message);
+    }
+}
@@ -0,0 +1,220 @@
+/*
+ * Copyright: Carlos F. Heuberger. All rights reserved.
+ *
+ */
+package cfh.zipinfo;
+
+import static java.util.Objects.*;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Lazily walks all records of a ZIP file in file order: local file headers, file data, data
+ * descriptors, central directory and end records, stopping after the End of Central Directory.
+ *
+ * <p>The file data is skipped using the sizes of the local file header. For entries with data
+ * descriptor (flag bit 3) and no sizes, deflated data is inflated to find its end and stored data
+ * is searched for the data descriptor signature. Only one entry is held at a time and the buffers
+ * are reused, so the memory does not depend on the size of the file. The input is read forward,
+ * seeking back at most one block, so it can be a {@linkplain RandomAccessInput#stream stream}.
+ *
+ * @author Carlos F. Heuberger, 2026-10-17
+ *
+ */
+public class RecordWalker implements Iterator<Entry>, AutoCloseable {
+
+    /** Flag bit 3: sizes and CRC are in the data descriptor following the data. */
+    static final int FLAG_DESCRIPTOR = 1 << 3;
+
+    static final int METHOD_STORED = 0;
+    static final int METHOD_DEFLATED = 8;
+
+    private enum State { Record, Data, Descriptor, Done }
+
+    private final RandomAccessInput input;
+    private final byte[] buffer = new byte[RandomAccessInput.BLOCK_SIZE];
+    private final byte[] output = new byte[RandomAccessInput.BLOCK_SIZE];
+    private Inflater inflater = null;
+
+    private State state = State.Record;
+    private long position;
+    /** Position known to have a byte, so the next record is only peeked once. */
+    private long peeked = -1;
+    private Entry header = null;
+
+    public RecordWalker(RandomAccessInput input) throws IOException {
+        this.input = requireNonNull(input);
+        this.position = input.position();
+    }
+
+    /** Sequential stream of all records, must be closed to release the inflater. */
+    public static Stream<Entry> stream(RandomAccessInput input) throws IOException {
+        var walker = new RecordWalker(input);
+        var spliterator = Spliterators.spliteratorUnknownSize(walker, Spliterator.ORDERED | Spliterator.NONNULL);
+        return StreamSupport.stream(spliterator, false).onClose(walker::close);
+    }
+
+    /**
+     * Peeks at the first byte of the next record instead of asking the length, which a stream only
+     * knows after buffering a block more.
+     */
+    @Override
+    public boolean hasNext() {
+        if (state == State.Done)
+            return false;
+        if (peeked == position)
+            return true;
+        try {
+            input.seek(position);
+            if (input.read() == -1)
+                return false;
+            peeked = position;
+            return true;
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    @Override
+    public Entry next() {
+        if (!hasNext())
+            throw new NoSuchElementException();
+        try {
+            return switch (state) {
+                case Record -> record();
+                case Data -> data();
+                case Descriptor -> descriptor();
+                case Done -> throw new NoSuchElementException();
+            };
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (inflater != null) {
+            inflater.end();
+            inflater = null;
+        }
+    }
+
+    //----------------------------------------------------------------------------------------------
+
+    private Entry record() throws IOException {
+        input.seek(position);
+        var entry = Entry.read(input);
+        position = input.position();
+        switch (entry.type()) {
+            case LocalFileHeader -> {
+                header = entry;
+                state = State.Data;
+            }
+            case EndOfCentralDirectory -> state = State.Done;
+            default -> state = State.Record;
+        }
+        return entry;
+    }
+
+    private Entry data() throws IOException {
+        var flags = header.number("Flags");
+        var method = header.number("Method");
+        var compressed = Zip64Extra.resolve(header).compressed();
+        var descriptor = (flags & FLAG_DESCRIPTOR) != 0;
+
+        long size;
+        if (!descriptor || compressed != 0) {
+            size = compressed;
+        } else if (method == METHOD_DEFLATED) {
+            size = inflatedSize(position);
+        } else {
+            size = findDescriptor(position, zip64()) - position;
+        }
+        var entry = Entry.of(position, EntryType.FileData, size);
+        position += size;
+        state = descriptor ? State.Descriptor : State.Record;
+        return entry;
+    }
+
+    private Entry descriptor() throws IOException {
+        input.seek(position);
+        var type = zip64() ? EntryType.Zip64DataDescriptor : EntryType.DataDescriptor;
+        if (input.readInt() != type.signature()) {
+            input.seek(position);
+        }
+        var entry = Entry.read(position, type, input);
+        position = input.position();
+        header = null;
+        state = State.Record;
+        return entry;
+    }
+
+    private boolean zip64() {
+        return Zip64Extra.resolve(header).present();
+    }
+
+    /** Number of bytes of the deflated data starting at {@code start}. */
+    private long inflatedSize(long start) throws IOException {
+        if (inflater == null) {
+            inflater = new Inflater(true);
+        } else {
+            inflater.reset();
+        }
+        var position = start;
+        input.seek(start);
+        try {
+            while (position < input.length()) {
+                var count = (int) Math.min(buffer.length, input.length() - position);
+                input.readFully(buffer, 0, count);
+                position += count;
+                inflater.setInput(buffer, 0, count);
+                while (!inflater.finished() && !inflater.needsInput()) {
+                    if (inflater.inflate(output) == 0 && inflater.needsDictionary())
+                        throw new IOException("deflated data at 0x%x needs a dictionary".formatted(start));
+                }
+                if (inflater.finished())
+                    return position - inflater.getRemaining() - start;
+            }
+        } catch (DataFormatException ex) {
+            throw (IOException) new IOException("at %d (%1$x)".formatted(start)).initCause(ex);
+        }
+        throw new IOException("end of deflated data starting at 0x%x not found".formatted(start));
+    }
+
+    /**
+     * Position of the data descriptor for the stored data starting at {@code start}: its signature
+     * must be followed by a compressed size equal to the distance from {@code start}.
+     */
+    private long findDescriptor(long start, boolean zip64) throws IOException {
+        var signature = EntryType.DataDescriptor.signature();
+        var tail = zip64 ? 24 : 16;
+        var wrap = ByteBuffer.wrap(buffer).order(ByteOrder.LITTLE_ENDIAN);
+        var position = start;
+        while (position + tail <= input.length()) {
+            input.seek(position);
+            var count = (int) Math.min(buffer.length, input.length() - position);
+            input.readFully(buffer, 0, count);
+            var last = count - tail;
+            for (var i = 0; i <= last; i++) {
+                if (wrap.getInt(i) == signature) {
+                    var size = zip64 ? wrap.getLong(i + 8) : Integer.toUnsignedLong(wrap.getInt(i + 8));
+                    if (size == position + i - start)
+                        return position + i;
+                }
+            }
+            position += last + 1;
+        }
+        throw new IOException("data descriptor for data starting at 0x%x not found".formatted(start));
+    }
+}
@@ -0,0 +1,252 @@
+/*
+ * Copyright: Carlos F. Heuberger. All rights reserved.
+ *
+ */
+package cfh.zipinfo;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Recovers the records of a damaged or truncated archive whose central directory cannot be used,
+ * by scanning the whole file for record signatures.
+ *
+ * <p>The file is split in chunks which are mapped and scanned in parallel, eight bytes at a time:
+ * only the positions of the {@code 'P'} bytes of a word are checked for a signature. The
+ * candidates are then checked in file order, decoding each record and rejecting implausible ones
+ * and those inside the data of an already recovered entry.
+ *
+ * @author Carlos F. Heuberger, 2026-10-17
+ *
+ */
+public class Recovery implements AutoCloseable {
+
+    /** Size of the chunks scanned in parallel. */
+    static final int CHUNK_SIZE = 64 * 1024 * 1024;
+
+    private static final long ONES = 0x0101_0101_0101_0101L;
+    private static final long LOWS = 0x7F7F_7F7F_7F7F_7F7FL;
+    private static final long PS = ONES * 'P';
+
+    /** Highest version needed to extract considered plausible, version 6.3 is the latest. */
+    private static final int MAX_VERSION = 63;
+
+    /** A recovered record, {@code problem} is {@code null} if none was found. */
+    public record Recovered(Entry entry, String problem) {
+    }
+
+    private final FileChannel channel;
+    /** Counters of the chunks scanned, {@code null} if not counted. */
+    private final Stats stats;
+
+    public Recovery(File file) throws IOException {
+        this(file, null);
+    }
+
+    /** Recovery counting the chunks it maps and scans in {@code stats}, if not {@code null}. */
+    Recovery(File file, Stats stats) throws IOException {
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        this.stats = stats;
+    }
+
+    /**
+     * Positions of all signatures of local file headers, central directory file headers, end of
+     * central directory records and data descriptors, in ascending order, scanning in parallel
+     * using {@code pool}.
+     */
+    public long[] scan(ForkJoinPool pool) throws IOException {
+        var length = channel.size();
+        var tasks = new ArrayList<Callable<long[]>>();
+        for (var start = 0L; start < length; start += CHUNK_SIZE) {
+            var from = start;
+            tasks.add(() -> scan(from, (int) Math.min(CHUNK_SIZE, length - from)));
+        }
+        var found = new ArrayList<long[]>(tasks.size());
+        var count = 0;
+        try {
+            for (var future : pool.invokeAll(tasks)) {
+                var positions = future.get();
+                found.add(positions);
+                count += positions.length;
+            }
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof IOException io)
+                throw io;
+            throw new IOException(ex.getCause());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException("interrupted", ex);
+        }
+        var positions = new long[count];
+        var index = 0;
+        for (var chunk : found) {
+            System.arraycopy(chunk, 0, positions, index, chunk.length);
+            index += chunk.length;
+        }
+        return positions;
+    }
+
+    /**
+     * Scans the file using {@code pool} and rebuilds the records from the signatures found,
+     * reading them from {@code input}.
+     */
+    public List<Recovered> recover(RandomAccessInput input, ForkJoinPool pool) throws IOException {
+        var length = input.length();
+        var recovered = new ArrayList<Recovered>();
+        var covered = 0L;       // end of the data of the last entry with known size
+        Entry open = null;      // last local header with data descriptor, not yet found
+        var openData = 0L;
+
+        for (var position : scan(pool)) {
+            input.seek(position);
+            var signature = input.readInt();
+            var type = EntryType.forSignature(signature);
+            if (type == EntryType.DataDescriptor) {
+                if (open == null)
+                    continue;
+                var descriptor = descriptor(input, position, openData);
+                if (descriptor != null) {
+                    recovered.add(new Recovered(open, null));
+                    recovered.add(new Recovered(descriptor, null));
+                    covered = input.position();
+                    open = null;
+                }
+                continue;
+            }
+            if (position < covered)
+                continue;
+
+            Entry entry;
+            try {
+                entry = Entry.read(position, type, input);
+            } catch (IOException ex) {
+                if (type == EntryType.LocalFileHeader) {
+                    recovered.add(new Recovered(Entry.of(position, EntryType.FileData, length - position), "truncated local file header"));
+                }
+                continue;
+            }
+            switch (type) {
+                case LocalFileHeader -> {
+                    if (!plausible(entry))
+                        continue;
+                    if (open != null) {
+                        recovered.add(new Recovered(open, "data descriptor not found"));
+                        open = null;
+                    }
+                    var data = input.position();
+                    if ((entry.number("Flags") & RecordWalker.FLAG_DESCRIPTOR) != 0) {
+                        open = entry;
+                        openData = data;
+                        covered = data;
+                    } else {
+                        var end = data + Zip64Extra.resolve(entry).compressed();
+                        recovered.add(new Recovered(entry, end > length ? "data truncated at %d of %d bytes".formatted(length - data, end - data) : null));
+                        covered = Math.min(end, length);
+                    }
+                }
+                case CentralDirectoryFileHeader -> {
+                    if (plausible(entry) && Zip64Extra.resolve(entry).offset() < position) {
+                        recovered.add(new Recovered(entry, null));
+                    }
+                }
+                default -> recovered.add(new Recovered(entry, null));
+            }
+        }
+        if (open != null) {
+            recovered.add(new Recovered(open, "data descriptor not found"));
+        }
+        return recovered;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    //----------------------------------------------------------------------------------------------
+
+    /** Positions of the signatures in the chunk, including signatures starting in its last 3 bytes. */
+    private long[] scan(long start, int size) throws IOException {
+        var begin = (stats == null) ? 0 : System.nanoTime();
+        var mapped = (int) Math.min(size + 3L, channel.size() - start);
+        var buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, mapped).order(ByteOrder.LITTLE_ENDIAN);
+        var positions = new long[16];
+        var count = 0;
+        var index = 0;
+        for (; index + Long.BYTES <= size; index += Long.BYTES) {
+            var word = buffer.getLong(index) ^ PS;
+            // exactly the high bit of each zero byte, that is of each 'P'
+            var zeros = ~(((word & LOWS) + LOWS) | word | LOWS);
+            while (zeros != 0) {
+                var i = index + (Long.numberOfTrailingZeros(zeros) >>> 3);
+                if (i + Integer.BYTES <= mapped && isSignature(buffer.getInt(i))) {
+                    if (count == positions.length) {
+                        positions = Arrays.copyOf(positions, 2 * count);
+                    }
+                    positions[count++] = start + i;
+                }
+                zeros &= zeros - 1;
+            }
+        }
+        for (; index < size; index++) {
+            if (index + Integer.BYTES <= mapped && isSignature(buffer.getInt(index))) {
+                if (count == positions.length) {
+                    positions = Arrays.copyOf(positions, 2 * count);
+                }
+                positions[count++] = start + index;
+            }
+        }
+        if (stats != null) {
+            // the pages are read while scanning
+            stats.readParallel(mapped, System.nanoTime() - begin);
+        }
+        return Arrays.copyOf(positions, count);
+    }
+
+    private static boolean isSignature(int value) {
+        return value == EntryType.LocalFileHeader.signature()
+            || value == EntryType.CentralDirectoryFileHeader.signature()
+            || value == EntryType.EndOfCentralDirectory.signature()
+            || value == EntryType.DataDescriptor.signature();
+    }
+
+    /** Plausible values of a local or central directory file header. */
+    private static boolean plausible(Entry entry) {
+        if ((entry.number("Version needed") & 0xFF) > MAX_VERSION)
+            return false;
+        var method = entry.number("Method");
+        if (method > 20 && (method < 93 || method > 99))
+            return false;
+        return !entry.text("Name").isEmpty();
+    }
+
+    /** The data descriptor at {@code position} if its compressed size matches the data, else {@code null}. */
+    private static Entry descriptor(RandomAccessInput input, long position, long data) throws IOException {
+        var compressed = position - data;
+        var buffer = ByteBuffer.allocate(20).order(ByteOrder.LITTLE_ENDIAN);
+        var available = (int) Math.min(buffer.capacity(), input.length() - position - 4);
+        if (available < 12)
+            return null;
+        input.readFully(buffer.array(), 0, available);
+        EntryType type;
+        if (Integer.toUnsignedLong(buffer.getInt(4)) == compressed) {
+            type = EntryType.DataDescriptor;
+        } else if (available >= 20 && buffer.getLong(4) == compressed) {
+            type = EntryType.Zip64DataDescriptor;
+        } else {
+            return null;
+        }
+        input.seek(position + 4);
+        return Entry.read(position, type, input);
+    }
+}
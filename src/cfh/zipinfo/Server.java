@@ -0,0 +1,313 @@
+/*
+ * Copyright: Carlos F. Heuberger. All rights reserved.
+ *
+ */
+package cfh.zipinfo;
+
+import static java.util.Objects.*;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.LinkedHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.regex.Pattern;
+
+/**
+ * Answers queries about archives over a Unix-domain or loopback TCP socket, keeping the archives
+ * open and mapped and their central directory indexes cached between the requests.
+ *
+ * <p>Each connection is served on its own virtual thread. A request is one line, the command and
+ * its arguments separated by tabs, or by spaces if the line has no tab:
+ * <ul>
+ * <li>{@code list <archive>}: compressed and original size and name of each entry</li>
+ * <li>{@code lookup <archive> <name>}: the fields of the entry with that name</li>
+ * <li>{@code stat <archive>}: number of entries, total sizes, length and memory of the index</li>
+ * <li>{@code verify <archive>}: CRC and size of all entries, listing the entries not ok</li>
+ * <li>{@code quit}: closes the connection</li>
+ * </ul>
+ * The response lines are indented by two spaces and followed by one line starting with
+ * {@code ok} or {@code error} and a message.
+ *
+ * @author Carlos F. Heuberger, 2026-10-17
+ *
+ */
+public final class Server {
+
+    private static final Pattern PORT = Pattern.compile("\\d{1,5}");
+
+    private final IndexCache cache;
+    private final int open;
+    private final LinkedHashMap<Path, Archive> archives = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * @param cache the cache of the indexes, also used when an archive is opened again
+     * @param open maximum number of archives kept open, the least recently used is closed
+     */
+    public Server(IndexCache cache, int open) {
+        this.cache = requireNonNull(cache);
+        this.open = open;
+    }
+
+    /**
+     * Serves the connections to {@code address} until interrupted or the JVM exits: a port number
+     * for a loopback TCP socket, otherwise the path of a Unix-domain socket, replaced if it exists
+     * and deleted when the server stops.
+     */
+    public void serve(String address, PrintStream log) throws IOException {
+        SocketAddress socket;
+        ServerSocketChannel server;
+        Path path = null;
+        if (PORT.matcher(address).matches()) {
+            socket = new InetSocketAddress(InetAddress.getLoopbackAddress(), Integer.parseInt(address));
+            server = ServerSocketChannel.open(StandardProtocolFamily.INET);
+        } else {
+            path = Path.of(address);
+            if (Files.exists(path) && Files.readAttributes(path, BasicFileAttributes.class).isOther()) {
+                Files.delete(path);
+            }
+            socket = UnixDomainSocketAddress.of(path);
+            var socketPath = path;
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> socketPath.toFile().delete()));
+            server = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        }
+        try (server; var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            server.bind(socket);
+            log.printf("Serving on %s%n", server.getLocalAddress());
+            log.flush();
+            while (!Thread.currentThread().isInterrupted()) {
+                var client = server.accept();
+                executor.execute(() -> connection(client));
+            }
+        } finally {
+            if (path != null) {
+                Files.deleteIfExists(path);
+            }
+            synchronized (archives) {
+                for (var archive : archives.values()) {
+                    archive.evict();
+                }
+                archives.clear();
+            }
+        }
+    }
+
+    //----------------------------------------------------------------------------------------------
+
+    private void connection(SocketChannel client) {
+        try (client;
+             var in = new BufferedReader(new InputStreamReader(Channels.newInputStream(client), StandardCharsets.UTF_8));
+             var out = new PrintStream(new BufferedOutputStream(Channels.newOutputStream(client), RandomAccessInput.BLOCK_SIZE), false, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (line.isBlank())
+                    continue;
+                var args = line.indexOf('\t') != -1 ? line.split("\t") : line.strip().split(" +", line.startsWith("lookup") ? 3 : 2);
+                if (args[0].equals("quit")) {
+                    out.println("ok bye");
+                    break;
+                }
+                try {
+                    out.println("ok " + request(args, out));
+                } catch (IOException | UncheckedIOException | IllegalArgumentException ex) {
+                    out.println("error " + ex.getMessage());
+                }
+                out.flush();
+            }
+            out.flush();
+        } catch (IOException ex) {
+            // connection lost, nothing to answer
+        }
+    }
+
+    /** Writes the response lines, returns the message of the final {@code ok} line. */
+    private String request(String[] args, PrintStream out) throws IOException {
+        var command = args[0];
+        switch (command) {
+            case "list" -> {
+                try (var archive = archive(args, 2)) {
+                    var index = archive.index();
+                    for (var i = 0; i < index.size(); i++) {
+                        out.printf("  %d %d %s%n", index.compressed(i), index.original(i), index.name(i));
+                    }
+                    return index.size() + " entries";
+                }
+            }
+            case "lookup" -> {
+                try (var archive = archive(args, 3)) {
+                    var index = archive.index();
+                    var i = index.find(args[2]);
+                    if (i == -1)
+                        throw new IllegalArgumentException("not found: " + args[2]);
+                    out.printf("  name %s%n", index.name(i));
+                    out.printf("  method %d%n", index.method(i));
+                    out.printf("  flags 0x%04x%n", index.flags(i));
+                    out.printf("  crc %s%n", Format.hex4(index.crc(i)));
+                    out.printf("  compressed %d%n", index.compressed(i));
+                    out.printf("  original %d%n", index.original(i));
+                    out.printf("  time 0x%08x%n", index.dateTime(i));
+                    out.printf("  offset %d%n", index.offset(i));
+                    return "entry " + i;
+                }
+            }
+            case "stat" -> {
+                try (var archive = archive(args, 2)) {
+                    var index = archive.index();
+                    var compressed = 0L;
+                    var original = 0L;
+                    for (var i = 0; i < index.size(); i++) {
+                        compressed += index.compressed(i);
+                        original += index.original(i);
+                    }
+                    out.printf("  entries %d%n", index.size());
+                    out.printf("  compressed %d%n", compressed);
+                    out.printf("  original %d%n", original);
+                    out.printf("  length %d%n", archive.length());
+                    out.printf("  index %d bytes%n", index.memory());
+                    return archive.file.getPath();
+                }
+            }
+            case "verify" -> {
+                // the verifier reads the mapped input, open until the archive is closed
+                try (var archive = archive(args, 2)) {
+                    var index = archive.index();
+                    try (var verifier = archive.verifier()) {
+                        var failed = 0;
+                        for (var result : verifier.verify(index, ForkJoinPool.commonPool())) {
+                            if (result.status() != Verifier.Status.Ok) {
+                                out.println("  " + result);
+                            }
+                            if (result.status() == Verifier.Status.Failed) {
+                                failed += 1;
+                            }
+                        }
+                        if (failed > 0)
+                            throw new IOException("%d of %d entries failed".formatted(failed, index.size()));
+                        return index.size() + " entries verified";
+                    }
+                }
+            }
+            default -> throw new IllegalArgumentException("unknown command: " + command);
+        }
+    }
+
+    /**
+     * The archive named by the second argument, opened if not yet open, in use until closed; an
+     * archive closed by the LRU is only closed when no longer in use.
+     */
+    private Archive archive(String[] args, int count) throws IOException {
+        if (args.length != count)
+            throw new IllegalArgumentException("%s needs %d arguments".formatted(args[0], count - 1));
+        var path = Path.of(args[1]).toAbsolutePath().normalize();
+        if (!Files.isRegularFile(path))
+            throw new IllegalArgumentException("not a file: " + args[1]);
+        synchronized (archives) {
+            var archive = archives.get(path);
+            if (archive == null) {
+                archive = new Archive(path.toFile());
+                archives.put(path, archive);
+                var iterator = archives.values().iterator();
+                while (archives.size() > open) {
+                    iterator.next().evict();
+                    iterator.remove();
+                }
+            }
+            archive.use();
+            return archive;
+        }
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * An archive, opened mapped when used and opened again if changed; counts the requests using
+     * it, so the LRU only closes it when the last one is done.
+     */
+    private final class Archive implements AutoCloseable {
+        private final File file;
+        private RandomAccessInput.MappedInput input = null;
+        private long length;
+        private long modified;
+        private int users = 0;
+        private boolean evicted = false;
+
+        Archive(File file) {
+            this.file = requireNonNull(file);
+        }
+
+        synchronized long length() {
+            return length;
+        }
+
+        /** The index from the cache, which checks the end record read from the mapped input. */
+        synchronized DirectoryIndex index() throws IOException {
+            return cache.get(file, input());
+        }
+
+        /** Verifier reading the mapped input, which stays open while the archive is in use. */
+        synchronized Verifier verifier() throws IOException {
+            return new Verifier(input());
+        }
+
+        private RandomAccessInput.MappedInput input() throws IOException {
+            if (input != null && (file.length() != length || file.lastModified() != modified)) {
+                closeInput();
+            }
+            if (input == null) {
+                length = file.length();
+                modified = file.lastModified();
+                input = new RandomAccessInput.MappedInput(file, RandomAccessInput.WINDOW_SIZE);
+            }
+            return input;
+        }
+
+        synchronized void use() {
+            users += 1;
+        }
+
+        /** Removed from the open archives, closed now or when no longer in use. */
+        synchronized void evict() {
+            evicted = true;
+            if (users == 0) {
+                closeInput();
+            }
+        }
+
+        /** Done using the archive. */
+        @Override
+        public synchronized void close() {
+            users -= 1;
+            if (evicted && users == 0) {
+                closeInput();
+            }
+        }
+
+        private void closeInput() {
+            if (input != null) {
+                try {
+                    input.close();
+                } catch (IOException ex) {
+                    // only read, nothing lost
+                }
+                input = null;
+            }
+        }
+    }
+}
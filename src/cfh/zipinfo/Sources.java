@@ -0,0 +1,192 @@
+/*
+ * Copyright: Carlos F. Heuberger. All rights reserved.
+ *
+ */
+package cfh.zipinfo;
+
+import static java.util.Objects.*;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.regex.Pattern;
+
+/**
+ * Read-only {@code SeekableByteChannel}s over the sources of archives: files, byte arrays and
+ * HTTP servers supporting range requests. Use {@link RandomAccessInput#open(SeekableByteChannel)}
+ * to read them through a block cache.
+ *
+ * @author Carlos F. Heuberger, 2026-10-17
+ *
+ */
+public abstract class Sources {
+
+    private Sources() {
+        throw new AssertionError("should not be instanciated");
+    }
+
+    public static SeekableByteChannel file(Path path) throws IOException {
+        return FileChannel.open(path, StandardOpenOption.READ);
+    }
+
+    /** Channel over {@code bytes}, which are not copied. */
+    public static SeekableByteChannel bytes(byte[] bytes) {
+        return new ArrayChannel(bytes);
+    }
+
+    /** Channel reading {@code uri} with one range request per read. */
+    public static SeekableByteChannel http(URI uri) throws IOException {
+        return new HttpChannel(uri);
+    }
+
+    /** If {@code path} is a HTTP or HTTPS URL. */
+    public static boolean isUrl(String path) {
+        return path.startsWith("http://") || path.startsWith("https://");
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+
+    private abstract static class ReadOnlyChannel implements SeekableByteChannel {
+
+        private boolean open = true;
+        protected long position = 0;
+
+        @Override
+        public long position() throws IOException {
+            check();
+            return position;
+        }
+
+        @Override
+        public SeekableByteChannel position(long position) throws IOException {
+            check();
+            if (position < 0)
+                throw new IllegalArgumentException("negative position: " + position);
+            this.position = position;
+            return this;
+        }
+
+        @Override
+        public int write(ByteBuffer src) {
+            throw new NonWritableChannelException();
+        }
+
+        @Override
+        public SeekableByteChannel truncate(long size) {
+            throw new NonWritableChannelException();
+        }
+
+        @Override
+        public boolean isOpen() {
+            return open;
+        }
+
+        @Override
+        public void close() throws IOException {
+            open = false;
+        }
+
+        protected void check() throws ClosedChannelException {
+            if (!open)
+                throw new ClosedChannelException();
+        }
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+
+    private static final class ArrayChannel extends ReadOnlyChannel {
+        private final byte[] bytes;
+        ArrayChannel(byte[] bytes) {
+            this.bytes = requireNonNull(bytes);
+        }
+        @Override
+        public int read(ByteBuffer dst) throws IOException {
+            check();
+            if (position >= bytes.length)
+                return -1;
+            var count = (int) Math.min(dst.remaining(), bytes.length - position);
+            dst.put(bytes, (int) position, count);
+            position += count;
+            return count;
+        }
+        @Override
+        public long size() throws IOException {
+            check();
+            return bytes.length;
+        }
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /** Each read is one range request, the size is requested once. */
+    private static final class HttpChannel extends ReadOnlyChannel {
+
+        private static final Pattern CONTENT_RANGE = Pattern.compile("bytes \\d+-\\d+/(\\d+)");
+
+        private final HttpClient client = HttpClient.newBuilder().followRedirects(HttpClient.Redirect.NORMAL).build();
+        private final URI uri;
+        private final long size;
+
+        HttpChannel(URI uri) throws IOException {
+            this.uri = requireNonNull(uri);
+            var response = send(HttpRequest.newBuilder(uri).header("Range", "bytes=0-0").build(), HttpResponse.BodyHandlers.discarding());
+            if (response.statusCode() != 206)
+                throw new IOException("%s: range requests not supported, status %d".formatted(uri, response.statusCode()));
+            var range = response.headers().firstValue("Content-Range").map(CONTENT_RANGE::matcher).orElse(null);
+            if (range == null || !range.matches())
+                throw new IOException("%s: invalid Content-Range %s".formatted(uri, response.headers().firstValue("Content-Range").orElse("")));
+            size = Long.parseLong(range.group(1));
+        }
+
+        @Override
+        public int read(ByteBuffer dst) throws IOException {
+            check();
+            if (position >= size)
+                return -1;
+            if (!dst.hasRemaining())
+                return 0;
+            var last = Math.min(size, position + dst.remaining()) - 1;
+            var request = HttpRequest.newBuilder(uri).header("Range", "bytes=%d-%d".formatted(position, last)).build();
+            var response = send(request, HttpResponse.BodyHandlers.ofByteArray());
+            if (response.statusCode() != 206)
+                throw new IOException("%s: status %d reading from %d (%3$x)".formatted(uri, response.statusCode(), position));
+            var body = response.body();
+            if (body.length == 0)
+                return -1;
+            var count = (int) Math.min(body.length, last - position + 1);
+            dst.put(body, 0, count);
+            position += count;
+            return count;
+        }
+
+        @Override
+        public long size() throws IOException {
+            check();
+            return size;
+        }
+
+        private <T> HttpResponse<T> send(HttpRequest request, HttpResponse.BodyHandler<T> handler) throws IOException {
+            try {
+                return client.send(request, handler);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new IOException("interrupted", ex);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            super.close();
+            client.close();
+        }
+    }
+}
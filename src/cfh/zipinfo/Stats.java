@@ -0,0 +1,200 @@
+/*
+ * Copyright: Carlos F. Heuberger. All rights reserved.
+ *
+ */
+package cfh.zipinfo;
+
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * Counters of the inspection of one archive: bytes, reads and seeks of the inputs wrapped by
+ * {@link RandomAccessInput#counting(RandomAccessInput, Stats)}, time spent reading, and number
+ * and parse time of the entries per {@link EntryType}.
+ *
+ * <p>The counters of an archive are only updated by the thread inspecting it, which makes them
+ * {@linkplain #current() current} for {@link Entry} while parsing; only the reads of the tasks
+ * verifying, checking or scanning the archive in parallel are counted from any thread. Each parsed entry is also
+ * reported as a JFR {@code cfh.zipinfo.Entry} event and the totals as a {@code cfh.zipinfo.Stats}
+ * event, when enabled in the recording.
+ *
+ * @author Carlos F. Heuberger, 2026-10-17
+ *
+ */
+public final class Stats {
+
+    private static final ThreadLocal<Stats> CURRENT = new ThreadLocal<>();
+
+    /** The counters of the archive inspected by the current thread, {@code null} if none. */
+    static Stats current() {
+        return CURRENT.get();
+    }
+
+    private final String name;
+    private final long start = System.nanoTime();
+    private final long allocated = allocated();
+
+    private long bytes = 0;
+    private long reads = 0;
+    private long seeks = 0;
+    private long readNanos = 0;
+    private long parseReadNanos = 0;
+    private int parsing = 0;
+
+    private final LongAdder parallelBytes = new LongAdder();
+    private final LongAdder parallelReads = new LongAdder();
+    private final LongAdder parallelNanos = new LongAdder();
+
+    private final long[] entries = new long[EntryType.values().length];
+    private final long[] parseNanos = new long[EntryType.values().length];
+
+    /** Creates the counters of the archive {@code name} and makes them current for this thread. */
+    public Stats(String name) {
+        this.name = name;
+        CURRENT.set(this);
+    }
+
+    /** Writes the summary and no longer makes the counters current. */
+    public void report(PrintStream out) {
+        CURRENT.remove();
+        var elapsed = System.nanoTime() - start;
+        var allocation = allocated();
+        var parsed = 0L;
+        var parse = 0L;
+        for (var i = 0; i < entries.length; i++) {
+            parsed += entries[i];
+            parse += parseNanos[i];
+        }
+        var seconds = Math.max(elapsed, 1) / 1e9;
+        var totalBytes = bytes + parallelBytes.sum();
+        var totalReads = reads + parallelReads.sum();
+
+        out.println("Stats:");
+        out.printf("    entries  %d (%.0f entries/s)%n", parsed, parsed / seconds);
+        out.printf("    read     %d bytes in %d reads, %d seeks (%.1f MB/s)%n", totalBytes, totalReads, seeks, totalBytes / seconds / 1e6);
+        if (parallelReads.sum() > 0) {
+            out.printf("    parallel %d bytes in %d reads, %s reading summed over the tasks%n",
+                parallelBytes.sum(), parallelReads.sum(), millis(parallelNanos.sum()));
+        }
+        out.printf("    time     %s total: %s reading, %s parsing without reading, %s other (formatting and output)%n",
+            millis(elapsed), millis(readNanos), millis(parse - parseReadNanos), millis(elapsed - parse - (readNanos - parseReadNanos)));
+        if (allocated >= 0 && allocation >= 0 && parsed > 0) {
+            out.printf("    memory   %d bytes allocated per entry%n", (allocation - allocated) / parsed);
+        }
+        for (var type : EntryType.values()) {
+            var i = type.ordinal();
+            if (entries[i] > 0) {
+                out.printf("    %-36s %9d entries %s%n", type, entries[i], millis(parseNanos[i]));
+            }
+        }
+
+        var event = new StatsEvent();
+        if (event.shouldCommit()) {
+            event.archive = name;
+            event.entries = parsed;
+            event.bytes = totalBytes;
+            event.reads = totalReads;
+            event.seeks = seeks;
+            event.readTime = readNanos;
+            event.parseTime = parse;
+            event.commit();
+        }
+    }
+
+    //----------------------------------------------------------------------------------------------
+
+    /** Called by the counting input after reading {@code count} bytes in {@code nanos}. */
+    void read(int count, long nanos) {
+        bytes += count;
+        reads += 1;
+        readNanos += nanos;
+        if (parsing > 0) {
+            parseReadNanos += nanos;
+        }
+    }
+
+    /**
+     * Called by the tasks reading the archive in parallel, from any thread, after reading or
+     * mapping {@code count} bytes in {@code nanos}; not included in the time of this thread.
+     */
+    void readParallel(long count, long nanos) {
+        parallelBytes.add(count);
+        parallelReads.increment();
+        parallelNanos.add(nanos);
+    }
+
+    void seek() {
+        seeks += 1;
+    }
+
+    /** Called before parsing an entry, returns the start time to pass to {@link #parsed(EntryType, long)}. */
+    long parsing() {
+        parsing += 1;
+        return System.nanoTime();
+    }
+
+    void parsed(EntryType type, long start) {
+        parsing -= 1;
+        entries[type.ordinal()] += 1;
+        parseNanos[type.ordinal()] += System.nanoTime() - start;
+    }
+
+    /** Bytes allocated by the current thread, -1 if not supported as for virtual threads. */
+    private static long allocated() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean bean && bean.isThreadAllocatedMemoryEnabled())
+            return bean.getCurrentThreadAllocatedBytes();
+        return -1;
+    }
+
+    private static String millis(long nanos) {
+        return "%.1f ms".formatted(nanos / 1e6);
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+
+    @Name("cfh.zipinfo.Entry")
+    @Label("Entry Parsed")
+    @Category("JZipInfo")
+    @Description("A record of an archive was parsed")
+    static final class EntryEvent extends Event {
+        @Label("Type")
+        String type;
+        @Label("Position")
+        long position;
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+
+    @Name("cfh.zipinfo.Stats")
+    @Label("Archive Stats")
+    @Category("JZipInfo")
+    @Description("Totals of the inspection of one archive")
+    static final class StatsEvent extends Event {
+        @Label("Archive")
+        String archive;
+        @Label("Entries")
+        long entries;
+        @Label("Bytes")
+        @DataAmount
+        long bytes;
+        @Label("Reads")
+        long reads;
+        @Label("Seeks")
+        long seeks;
+        @Label("Read Time")
+        @Timespan
+        long readTime;
+        @Label("Parse Time")
+        @Timespan
+        long parseTime;
+    }
+}
@@ -0,0 +1,283 @@
+/*
+ * Copyright: Carlos F. Heuberger. All rights reserved.
+ *
+ */
+package cfh.zipinfo;
+
+import static java.util.Objects.*;
+
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Compression statistics of the entries of one or more archives: count, compressed and original
+ * size and a histogram of the compression ratios per method and per file extension, and the
+ * largest and the worst compressed entries.
+ *
+ * <p>An archive is summarized by fork-join tasks each accumulating a range of the central
+ * directory index into its own summary, merged when the tasks join; the summaries of many archives
+ * are merged the same way. The top entries are kept in bounded heaps, names are only decoded for
+ * entries entering a heap.
+ *
+ * @author Carlos F. Heuberger, 2026-10-17
+ *
+ */
+public final class Summary {
+
+    /** Default number of entries listed as largest and as worst compressed. */
+    public static final int TOP = 10;
+
+    /** Histogram buckets: ratio below 10%, 20%, ... 100%, and 100% or more. */
+    static final int BUCKETS = 11;
+
+    /** Ranges with up to this number of entries are not split further. */
+    private static final int THRESHOLD = 4096;
+
+    /** Ties are ordered by name, the first name being the greater, so the top does not depend on the order of merging. */
+    private static final Comparator<Item> BY_NAME = Comparator.comparing(Item::archive).thenComparing(Item::name).reversed();
+    private static final Comparator<Item> BY_SIZE = Comparator.comparingLong(Item::original).thenComparing(BY_NAME);
+    private static final Comparator<Item> BY_RATIO = Comparator.comparingDouble(Item::ratio).thenComparingLong(Item::original).thenComparing(BY_NAME);
+
+    /** Totals of a group of entries. */
+    public static final class Group {
+        private long entries = 0;
+        private long compressed = 0;
+        private long original = 0;
+        private final long[] histogram = new long[BUCKETS];
+
+        void add(long compressed, long original) {
+            entries += 1;
+            this.compressed += compressed;
+            this.original += original;
+            if (original > 0) {
+                histogram[(int) Math.min(BUCKETS - 1, Math.max(0, compressed) * 10 / original)] += 1;
+            }
+        }
+
+        void merge(Group other) {
+            entries += other.entries;
+            compressed += other.compressed;
+            original += other.original;
+            for (var i = 0; i < BUCKETS; i++) {
+                histogram[i] += other.histogram[i];
+            }
+        }
+
+        public long entries() {
+            return entries;
+        }
+
+        public long compressed() {
+            return compressed;
+        }
+
+        public long original() {
+            return original;
+        }
+
+        /** Number of non-empty entries with a ratio in the given bucket. */
+        public long histogram(int bucket) {
+            return histogram[bucket];
+        }
+    }
+
+    /** An entry listed in the top. */
+    public record Item(String archive, String name, long compressed, long original) {
+        /** Compressed per original size. */
+        public double ratio() {
+            return original == 0 ? 0 : (double) compressed / original;
+        }
+        @Override
+        public String toString() {
+            return "%,15d %,15d %5.1f%% %s!%s".formatted(compressed, original, 100 * ratio(), archive, name);
+        }
+    }
+
+    private final int top;
+    private long archives = 0;
+    private final Group total = new Group();
+    private final Map<Integer, Group> methods = new HashMap<>();
+    private final Map<String, Group> extensions = new HashMap<>();
+    private final PriorityQueue<Item> largest;
+    private final PriorityQueue<Item> worst;
+
+    /** @param top number of entries listed as largest and as worst compressed */
+    public Summary(int top) {
+        this.top = top;
+        largest = new PriorityQueue<>(top + 1, BY_SIZE);
+        worst = new PriorityQueue<>(top + 1, BY_RATIO);
+    }
+
+    /** Summary of the entries of {@code index} of the archive {@code archive}, computed by {@code pool}. */
+    public static Summary of(String archive, DirectoryIndex index, int top, ForkJoinPool pool) {
+        var summary = pool.invoke(new Task(archive, index, top, 0, index.size()));
+        summary.archives = 1;
+        return summary;
+    }
+
+    /** Adds the counts and top entries of {@code other}, thread-safe to merge summaries of many archives. */
+    public synchronized void merge(Summary other) {
+        archives += other.archives;
+        total.merge(other.total);
+        other.methods.forEach((method, group) -> methods.computeIfAbsent(method, k -> new Group()).merge(group));
+        other.extensions.forEach((extension, group) -> extensions.computeIfAbsent(extension, k -> new Group()).merge(group));
+        for (var item : other.largest) {
+            offer(largest, BY_SIZE, item);
+        }
+        for (var item : other.worst) {
+            offer(worst, BY_RATIO, item);
+        }
+    }
+
+    public Group total() {
+        return total;
+    }
+
+    /** Writes the totals per method and extension, and the top entries. */
+    public synchronized void print(PrintStream out) {
+        out.printf("Summary of %d entries in %d archives: %,d compressed, %,d original bytes (%.1f%%)%n",
+            total.entries, archives, total.compressed, total.original, percent(total));
+        var header = new StringBuilder("    %-12s %10s %17s %17s %6s".formatted("", "entries", "compressed", "original", "ratio"));
+        for (var i = 0; i < BUCKETS; i++) {
+            header.append(" %6s".formatted(i < BUCKETS - 1 ? "<%d%%".formatted(10 * (i + 1)) : ">=100%"));
+        }
+        out.println("  Methods:");
+        out.println(header);
+        methods.entrySet().stream()
+        .sorted(Map.Entry.comparingByKey())
+        .forEach(entry -> print(out, method(entry.getKey()), entry.getValue()));
+        out.println("  Extensions:");
+        out.println(header);
+        extensions.entrySet().stream()
+        .sorted(Comparator.comparing((Map.Entry<String, Group> entry) -> entry.getValue().original).reversed())
+        .forEach(entry -> print(out, entry.getKey(), entry.getValue()));
+        out.printf("  Largest %d:%n", largest.size());
+        sorted(largest, BY_SIZE).forEach(item -> out.println("    " + item));
+        out.printf("  Worst compressed %d:%n", worst.size());
+        sorted(worst, BY_RATIO).forEach(item -> out.println("    " + item));
+    }
+
+    //----------------------------------------------------------------------------------------------
+
+    private void add(String archive, DirectoryIndex index, int i) {
+        var compressed = index.compressed(i);
+        var original = index.original(i);
+        var method = index.method(i);
+        total.add(compressed, original);
+        methods.computeIfAbsent(method, k -> new Group()).add(compressed, original);
+        var name = index.nameBuffer(i);
+        extensions.computeIfAbsent(extension(name, index.utf8(i)), k -> new Group()).add(compressed, original);
+
+        if (top == 0)
+            return;
+        // ties are decided by offer, by the name; the names of the others are not decoded
+        if (largest.size() < top || original >= largest.peek().original) {
+            offer(largest, BY_SIZE, new Item(archive, index.name(i), compressed, original));
+        }
+        if (original > 0) {
+            var ratio = (double) compressed / original;
+            var least = worst.peek();
+            if (worst.size() < top || ratio > least.ratio() || (ratio == least.ratio() && original >= least.original)) {
+                offer(worst, BY_RATIO, new Item(archive, index.name(i), compressed, original));
+            }
+        }
+    }
+
+    /** Adds to the heap holding the top entries, removing the least if more than {@code top}. */
+    private void offer(PriorityQueue<Item> heap, Comparator<Item> comparator, Item item) {
+        if (top == 0)
+            return;
+        if (heap.size() < top) {
+            heap.add(item);
+        } else if (comparator.compare(item, heap.peek()) > 0) {
+            heap.poll();
+            heap.add(item);
+        }
+    }
+
+    /** Lowercase extension of the last name segment from the raw bytes, {@code /} for directories. */
+    private static String extension(ByteBuffer name, boolean utf8) {
+        var end = name.limit();
+        if (end > 0 && name.get(end - 1) == '/')
+            return "/";
+        for (var i = end - 1; i >= 0; i--) {
+            var b = name.get(i);
+            if (b == '/')
+                break;
+            if (b == '.' && i > 0 && name.get(i - 1) != '/')
+                return ZipString.decode(name.slice(i, end - i), utf8).toLowerCase(Locale.ROOT);
+        }
+        return "-";
+    }
+
+    private static void print(PrintStream out, String name, Group group) {
+        var line = new StringBuilder("    %-12s %,10d %,17d %,17d %5.1f%%".formatted(name, group.entries, group.compressed, group.original, percent(group)));
+        for (var i = 0; i < BUCKETS; i++) {
+            line.append(" %6d".formatted(group.histogram[i]));
+        }
+        out.println(line);
+    }
+
+    private static double percent(Group group) {
+        return group.original == 0 ? 0 : 100.0 * group.compressed / group.original;
+    }
+
+    private static List<Item> sorted(PriorityQueue<Item> heap, Comparator<Item> comparator) {
+        var items = new ArrayList<>(heap);
+        items.sort(comparator.reversed());
+        return items;
+    }
+
+    private static String method(int method) {
+        return switch (method) {
+            case RecordWalker.METHOD_STORED -> "stored";
+            case RecordWalker.METHOD_DEFLATED -> "deflated";
+            default -> "method " + method;
+        };
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /** Summarizes a range of the index, splitting it and merging the summaries of the halves. */
+    private static final class Task extends RecursiveTask<Summary> {
+        // never serialized, tasks only run in the pool
+        private static final long serialVersionUID = 1L;
+        private final transient String archive;
+        private final transient DirectoryIndex index;
+        private final int top;
+        private final int from;
+        private final int to;
+        Task(String archive, DirectoryIndex index, int top, int from, int to) {
+            this.archive = requireNonNull(archive);
+            this.index = requireNonNull(index);
+            this.top = top;
+            this.from = from;
+            this.to = to;
+        }
+        @Override
+        protected Summary compute() {
+            if (to - from > THRESHOLD) {
+                var middle = (from + to) >>> 1;
+                var second = new Task(archive, index, top, middle, to);
+                second.fork();
+                var summary = new Task(archive, index, top, from, middle).compute();
+                summary.merge(second.join());
+                return summary;
+            }
+            var summary = new Summary(top);
+            for (var i = from; i < to; i++) {
+                summary.add(archive, index, i);
+            }
+            return summary;
+        }
+    }
+}
@@ -0,0 +1,274 @@
+/*
+ * Copyright: Carlos F. Heuberger. All rights reserved.
+ *
+ */
+package cfh.zipinfo;
+
+import static java.util.Objects.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Verifies the CRC-32 and uncompressed size of all entries of the central directory index.
+ *
+ * <p>The entries are split across a fork-join pool; each task decompresses stored or deflated
+ * data using positional reads into direct buffers, so the tasks share the file channel, or the
+ * regions of an open mapped input. The {@code Inflater} and buffers are pooled and reused by the
+ * tasks.
+ *
+ * @author Carlos F. Heuberger, 2026-10-17
+ *
+ */
+public class Verifier implements AutoCloseable {
+
+    /** Size of the fixed part of the local file header. */
+    static final int LOCAL_HEADER_SIZE = 30;
+
+    /** Ranges with up to this number of entries are not split further. */
+    private static final int THRESHOLD = 4;
+
+    public enum Status { Ok, Skipped, Failed }
+
+    public record Result(String name, long offset, Status status, String message) {
+        @Override
+        public String toString() {
+            return "%s %s (0x%x): %s".formatted(status, name, offset, message);
+        }
+    }
+
+    /** Positional reads, as by {@link FileChannel#read(ByteBuffer, long)}. */
+    @FunctionalInterface
+    private interface Reader {
+        int read(ByteBuffer dst, long position) throws IOException;
+    }
+
+    /** The channel opened by the verifier, {@code null} if reading a mapped input. */
+    private final FileChannel channel;
+    private final Reader reader;
+    /** Counters of the reads, {@code null} if not counted. */
+    private final Stats stats;
+    private final ConcurrentLinkedQueue<Worker> workers = new ConcurrentLinkedQueue<>();
+
+    public Verifier(File file) throws IOException {
+        this(file, null);
+    }
+
+    /** Verifier counting its reads in {@code stats}, if not {@code null}. */
+    Verifier(File file, Stats stats) throws IOException {
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        reader = channel::read;
+        this.stats = stats;
+    }
+
+    /** Verifier reading the regions of {@code input}, which is not closed with the verifier. */
+    Verifier(RandomAccessInput.MappedInput input) {
+        channel = null;
+        reader = input::read;
+        stats = null;
+    }
+
+    /**
+     * Verifies all entries of {@code index} using {@code pool}, returns the results in the order
+     * of the central directory.
+     */
+    public List<Result> verify(DirectoryIndex index, ForkJoinPool pool) {
+        var results = new Result[index.size()];
+        pool.invoke(new Task(index, results, 0, results.length));
+        return List.of(results);
+    }
+
+    @Override
+    public void close() throws IOException {
+        Worker worker;
+        while ((worker = workers.poll()) != null) {
+            worker.inflater.end();
+        }
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    //----------------------------------------------------------------------------------------------
+
+    private Result verify(DirectoryIndex index, int entry) {
+        var target = new Target(index, entry);
+        var worker = workers.poll();
+        if (worker == null) {
+            worker = new Worker();
+        }
+        try {
+            return verify(target, worker);
+        } catch (IOException | DataFormatException ex) {
+            return result(target, Status.Failed, ex.toString());
+        } finally {
+            worker.inflater.reset();
+            worker.crc.reset();
+            workers.offer(worker);
+        }
+    }
+
+    private Result verify(Target target, Worker worker) throws IOException, DataFormatException {
+        var header = worker.input.clear().limit(LOCAL_HEADER_SIZE);
+        read(header, target.offset);
+        if (header.getInt(0) != EntryType.LocalFileHeader.signature())
+            return result(target, Status.Failed, "no local file header");
+        if ((target.flags & 0x01) != 0)
+            return result(target, Status.Skipped, "encrypted");
+        var start = target.offset + LOCAL_HEADER_SIZE
+            + Short.toUnsignedInt(header.getShort(26))
+            + Short.toUnsignedInt(header.getShort(28));
+
+        long size;
+        switch (target.method) {
+            case RecordWalker.METHOD_STORED -> size = stored(start, target.compressed, worker);
+            case RecordWalker.METHOD_DEFLATED -> {
+                size = deflated(start, target.compressed, worker);
+                if (size < 0)
+                    return result(target, Status.Failed, "deflated data incomplete");
+            }
+            default -> {
+                return result(target, Status.Skipped, "unsupported method " + target.method);
+            }
+        }
+
+        var crc = (int) worker.crc.getValue();
+        if (size != target.original)
+            return result(target, Status.Failed, "size %d, expected %d".formatted(size, target.original));
+        if (crc != target.crc)
+            return result(target, Status.Failed, "CRC %s, expected %s".formatted(Format.hex4(crc), Format.hex4(target.crc)));
+        return result(target, Status.Ok, "CRC " + Format.hex4(crc));
+    }
+
+    /** Updates the CRC with the stored data, returns its size. */
+    private long stored(long start, long length, Worker worker) throws IOException {
+        var position = start;
+        var end = start + length;
+        while (position < end) {
+            var buffer = worker.input.clear();
+            buffer.limit((int) Math.min(buffer.capacity(), end - position));
+            read(buffer, position);
+            position += buffer.remaining();
+            worker.crc.update(buffer);
+        }
+        return length;
+    }
+
+    /** Inflates the data updating the CRC, returns the uncompressed size or -1 if incomplete. */
+    private long deflated(long start, long length, Worker worker) throws IOException, DataFormatException {
+        var inflater = worker.inflater;
+        var position = start;
+        var end = start + length;
+        var size = 0L;
+        while (!inflater.finished()) {
+            if (inflater.needsInput()) {
+                if (position >= end)
+                    return -1;
+                var buffer = worker.input.clear();
+                buffer.limit((int) Math.min(buffer.capacity(), end - position));
+                read(buffer, position);
+                position += buffer.remaining();
+                inflater.setInput(buffer);
+            }
+            var output = worker.output.clear();
+            var count = inflater.inflate(output);
+            if (count == 0 && inflater.needsDictionary())
+                throw new DataFormatException("needs dictionary");
+            size += count;
+            worker.crc.update(output.flip());
+        }
+        return size;
+    }
+
+    /** Fills {@code buffer} from {@code position} on, the buffer is left flipped. */
+    private void read(ByteBuffer buffer, long position) throws IOException {
+        var start = position;
+        var begin = (stats == null) ? 0 : System.nanoTime();
+        while (buffer.hasRemaining()) {
+            var count = reader.read(buffer, position);
+            if (count == -1)
+                throw new IOException("unexpected end of file reading from 0x%x".formatted(start));
+            position += count;
+        }
+        if (stats != null) {
+            stats.readParallel(position - start, System.nanoTime() - begin);
+        }
+        buffer.flip();
+    }
+
+    private static Result result(Target target, Status status, String message) {
+        return new Result(target.index.name(target.entry), target.offset, status, message);
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /** The values of one entry of the index needed for its verification. */
+    private static final class Target {
+        final DirectoryIndex index;
+        final int entry;
+        final long offset;
+        final long compressed;
+        final long original;
+        final int crc;
+        final int method;
+        final int flags;
+        Target(DirectoryIndex index, int entry) {
+            this.index = index;
+            this.entry = entry;
+            offset = index.offset(entry);
+            compressed = index.compressed(entry);
+            original = index.original(entry);
+            crc = index.crc(entry);
+            method = index.method(entry);
+            flags = index.flags(entry);
+        }
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+
+    private static final class Worker {
+        final Inflater inflater = new Inflater(true);
+        final CRC32 crc = new CRC32();
+        final ByteBuffer input = ByteBuffer.allocateDirect(RandomAccessInput.BLOCK_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        final ByteBuffer output = ByteBuffer.allocateDirect(RandomAccessInput.BLOCK_SIZE);
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+
+    private final class Task extends RecursiveAction {
+        // never serialized, tasks only run in the pool
+        private static final long serialVersionUID = 1L;
+        private final transient DirectoryIndex index;
+        private final transient Result[] results;
+        private final int from;
+        private final int to;
+        Task(DirectoryIndex index, Result[] results, int from, int to) {
+            this.index = requireNonNull(index);
+            this.results = requireNonNull(results);
+            this.from = from;
+            this.to = to;
+        }
+        @Override
+        protected void compute() {
+            if (to - from > THRESHOLD) {
+                var middle = (from + to) >>> 1;
+                invokeAll(new Task(index, results, from, middle), new Task(index, results, middle, to));
+            } else {
+                for (var i = from; i < to; i++) {
+                    results[i] = verify(index, i);
+                }
+            }
+        }
+    }
+}
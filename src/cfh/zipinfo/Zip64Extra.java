@@ -0,0 +1,81 @@
+/*
+ * Copyright: Carlos F. Heuberger. All rights reserved.
+ *
+ */
+package cfh.zipinfo;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Effective sizes, offset and disk of a file header, taken from the Zip64 Extended Information
+ * extra field (0x0001) for each header field that is saturated ({@code 0xFFFFFFFF} or
+ * {@code 0xFFFF} for the disk).
+ *
+ * @author Carlos F. Heuberger, 2026-10-17
+ *
+ */
+public record Zip64Extra(
+    long original,
+    long compressed,
+    long offset,
+    long disk,
+    boolean present)
+{
+    public static final short HEADER_ID = 0x0001;
+
+    static final long SATURATED4 = 0xFFFF_FFFFL;
+    static final long SATURATED2 = 0xFFFFL;
+
+    /**
+     * Resolves the values of a {@link EntryType#LocalFileHeader} or
+     * {@link EntryType#CentralDirectoryFileHeader}, the offset and disk are {@code -1} for local
+     * file headers.
+     */
+    public static Zip64Extra resolve(Entry entry) {
+        var central = entry.type() == EntryType.CentralDirectoryFileHeader;
+        var original = entry.number("Original");
+        var compressed = entry.number("Compressed");
+        var offset = central ? entry.number("Local header") : -1;
+        var disk = central ? entry.number("Disk start") : -1;
+        var extra = entry.bytes("Extra");
+        return resolve(extra, 0, extra.length, original, compressed, offset, disk);
+    }
+
+    /**
+     * Resolves the given header values using the extra field in {@code extra} from {@code from}
+     * with {@code length} bytes, for callers that decode the headers themselves.
+     */
+    public static Zip64Extra resolve(byte[] extra, int from, int length,
+                                     long original, long compressed, long offset, long disk) {
+        var present = false;
+        var data = find(extra, from, length);
+        if (data != null) {
+            present = true;
+            if (original == SATURATED4 && data.remaining() >= 8) {
+                original = data.getLong();
+            }
+            if (compressed == SATURATED4 && data.remaining() >= 8) {
+                compressed = data.getLong();
+            }
+            if (offset == SATURATED4 && data.remaining() >= 8) {
+                offset = data.getLong();
+            }
+            if (disk == SATURATED2 && data.remaining() >= 4) {
+                disk = Integer.toUnsignedLong(data.getInt());
+            }
+        }
+        return new Zip64Extra(original, compressed, offset, disk, present);
+    }
+
+    /** The data of the Zip64 extra field, {@code null} if not present. */
+    private static ByteBuffer find(byte[] extra, int from, int length) {
+        var field = ExtraFields.of(extra, from, length).find(HEADER_ID);
+        return field == null ? null : field.data();
+    }
+
+    @Override
+    public String toString() {
+        return "Zip64: original=%d, compressed=%d, offset=%s, disk=%d".formatted(
+            original, compressed, Format.hex8(offset), disk);
+    }
+}
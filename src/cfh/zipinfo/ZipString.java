@@ -0,0 +1,145 @@
+/*
+ * Copyright: Carlos F. Heuberger. All rights reserved.
+ *
+ */
+package cfh.zipinfo;
+
+import static java.util.Objects.*;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Raw bytes of a name or comment, decoded only when needed: as UTF-8 if the language encoding flag
+ * (bit 11) of the header is set, otherwise as IBM code page 437.
+ *
+ * <p>CP437 is decoded with a table, names only containing ASCII characters, the most common case,
+ * are copied to the string without any lookup.
+ *
+ * @author Carlos F. Heuberger, 2026-10-17
+ *
+ */
+public final class ZipString {
+
+    /** Flag bit 11: names and comments are encoded in UTF-8. */
+    static final int FLAG_UTF8 = 1 << 11;
+
+    /** Characters of the CP437 bytes 0x80 to 0xFF, the lower half is ASCII. */
+    private static final char[] CP437 = (""
+        + "\u00c7\u00fc\u00e9\u00e2\u00e4\u00e0\u00e5\u00e7\u00ea\u00eb\u00e8\u00ef\u00ee\u00ec\u00c4\u00c5"
+        + "\u00c9\u00e6\u00c6\u00f4\u00f6\u00f2\u00fb\u00f9\u00ff\u00d6\u00dc\u00a2\u00a3\u00a5\u20a7\u0192"
+        + "\u00e1\u00ed\u00f3\u00fa\u00f1\u00d1\u00aa\u00ba\u00bf\u2310\u00ac\u00bd\u00bc\u00a1\u00ab\u00bb"
+        + "\u2591\u2592\u2593\u2502\u2524\u2561\u2562\u2556\u2555\u2563\u2551\u2557\u255d\u255c\u255b\u2510"
+        + "\u2514\u2534\u252c\u251c\u2500\u253c\u255e\u255f\u255a\u2554\u2569\u2566\u2560\u2550\u256c\u2567"
+        + "\u2568\u2564\u2565\u2559\u2558\u2552\u2553\u256b\u256a\u2518\u250c\u2588\u2584\u258c\u2590\u2580"
+        + "\u03b1\u00df\u0393\u03c0\u03a3\u03c3\u00b5\u03c4\u03a6\u0398\u03a9\u03b4\u221e\u03c6\u03b5\u2229"
+        + "\u2261\u00b1\u2265\u2264\u2320\u2321\u00f7\u2248\u00b0\u2219\u00b7\u221a\u207f\u00b2\u25a0\u00a0"
+        ).toCharArray();
+
+    private final byte[] bytes;
+    private final boolean utf8;
+    private String text = null;
+
+    public ZipString(byte[] bytes, boolean utf8) {
+        this.bytes = requireNonNull(bytes);
+        this.utf8 = utf8;
+    }
+
+    /** The raw bytes, not copied. */
+    public byte[] bytes() {
+        return bytes;
+    }
+
+    /** If encoded in UTF-8, otherwise CP437. */
+    public boolean utf8() {
+        return utf8;
+    }
+
+    public boolean isEmpty() {
+        return bytes.length == 0;
+    }
+
+    /** If all bytes are ASCII, the same in both encodings. */
+    boolean ascii() {
+        return ascii(bytes, 0, bytes.length);
+    }
+
+    /** The decoded text, decoded once. */
+    @Override
+    public String toString() {
+        var decoded = text;
+        if (decoded == null) {
+            decoded = text = decode(bytes, 0, bytes.length, utf8);
+        }
+        return decoded;
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(bytes);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == this) return true;
+        if (!(obj instanceof ZipString other)) return false;
+        return Arrays.equals(bytes, other.bytes) && (utf8 == other.utf8 || ascii());
+    }
+
+    //==============================================================================================
+
+    /** Decodes {@code length} bytes starting at {@code from}. */
+    public static String decode(byte[] bytes, int from, int length, boolean utf8) {
+        if (ascii(bytes, from, length))
+            return new String(bytes, from, length, StandardCharsets.ISO_8859_1);
+        if (utf8)
+            return new String(bytes, from, length, StandardCharsets.UTF_8);
+        var chars = new char[length];
+        for (var i = 0; i < length; i++) {
+            var b = bytes[from + i];
+            chars[i] = b >= 0 ? (char) b : CP437[b & 0x7F];
+        }
+        return new String(chars);
+    }
+
+    /** Decodes the remaining bytes of {@code buffer}, which is not changed. */
+    public static String decode(ByteBuffer buffer, boolean utf8) {
+        if (buffer.hasArray())
+            return decode(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining(), utf8);
+        var bytes = new byte[buffer.remaining()];
+        buffer.get(buffer.position(), bytes);
+        return decode(bytes, 0, bytes.length, utf8);
+    }
+
+    /** The CP437 bytes of {@code text}, {@code null} if a character has no CP437 code. */
+    static byte[] encodeCp437(String text) {
+        var bytes = new byte[text.length()];
+        for (var i = 0; i < bytes.length; i++) {
+            var ch = text.charAt(i);
+            if (ch < 0x80) {
+                bytes[i] = (byte) ch;
+            } else {
+                var code = -1;
+                for (var j = 0; j < CP437.length; j++) {
+                    if (CP437[j] == ch) {
+                        code = j;
+                        break;
+                    }
+                }
+                if (code == -1)
+                    return null;
+                bytes[i] = (byte) (0x80 | code);
+            }
+        }
+        return bytes;
+    }
+
+    private static boolean ascii(byte[] bytes, int from, int length) {
+        for (var i = from; i < from + length; i++) {
+            if (bytes[i] < 0)
+                return false;
+        }
+        return true;
+    }
+}
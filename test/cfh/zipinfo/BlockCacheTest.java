@@ -0,0 +1,120 @@
+/*
+ * Copyright: Carlos F. Heuberger. All rights reserved.
+ *
+ */
+package cfh.zipinfo;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author Carlos F. Heuberger, 2026-10-17
+ *
+ */
+class BlockCacheTest {
+
+    private static final int BLOCK = 1024;
+
+    private static byte[] data(int length) {
+        var data = new byte[length];
+        for (var i = 0; i < length; i++) {
+            data[i] = (byte) (i * 31);
+        }
+        return data;
+    }
+
+    @Test
+    void blocks() throws IOException {
+        var data = data(10 * BLOCK + 100);
+        try (var cache = new BlockCache(Sources.bytes(data), BLOCK, 64, 8)) {
+            for (var number = 0; number <= 10; number++) {
+                var block = cache.block(number);
+                assertEquals(number < 10 ? BLOCK : 100, block.remaining());
+                assertEquals(data[number * BLOCK + 7], block.get(7));
+            }
+            assertEquals(0, cache.block(11).remaining());
+        }
+    }
+
+    @Test
+    void readAheadMergesSequentialReads() throws IOException {
+        try (var cache = new BlockCache(Sources.bytes(data(64 * BLOCK)), BLOCK, 64, 8)) {
+            for (var number = 0; number < 16; number++) {
+                cache.block(number);
+            }
+            // runs of 1, 2, 4, 8 and 1 blocks
+            assertEquals(5, cache.reads());
+        }
+    }
+
+    @Test
+    void shortChannel() throws IOException {
+        var data = data(3 * BLOCK);
+        try (var cache = new BlockCache(new ShortChannel(data, 2 * data.length), BLOCK, 64, 1)) {
+            assertEquals(BLOCK, cache.block(2).remaining());
+            assertThrows(EOFException.class, () -> cache.block(3));
+        }
+    }
+
+    @Test
+    void shortChannelInput() throws IOException {
+        var data = data(3 * BLOCK + 10);
+        try (var input = RandomAccessInput.open(new ShortChannel(data, 2 * data.length))) {
+            assertEquals(2 * data.length, input.length());
+            input.seek(0);
+            assertArrayEquals(data, input.readBytes(data.length));
+            assertThrows(EOFException.class, () -> input.readInt());
+        }
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /** Channel announcing more bytes than it has, like a shrunk file or a short HTTP body. */
+    private static final class ShortChannel implements SeekableByteChannel {
+        private final SeekableByteChannel channel;
+        private final long size;
+        ShortChannel(byte[] data, long size) {
+            this.channel = Sources.bytes(data);
+            this.size = size;
+        }
+        @Override
+        public int read(ByteBuffer dst) throws IOException {
+            return channel.read(dst);
+        }
+        @Override
+        public int write(ByteBuffer src) throws IOException {
+            return channel.write(src);
+        }
+        @Override
+        public long position() throws IOException {
+            return channel.position();
+        }
+        @Override
+        public SeekableByteChannel position(long position) throws IOException {
+            channel.position(position);
+            return this;
+        }
+        @Override
+        public long size() {
+            return size;
+        }
+        @Override
+        public SeekableByteChannel truncate(long size) throws IOException {
+            return channel.truncate(size);
+        }
+        @Override
+        public boolean isOpen() {
+            return channel.isOpen();
+        }
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
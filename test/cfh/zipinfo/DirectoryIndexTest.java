@@ -0,0 +1,80 @@
+/*
+ * Copyright: Carlos F. Heuberger. All rights reserved.
+ *
+ */
+package cfh.zipinfo;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author Carlos F. Heuberger, 2026-10-17
+ *
+ */
+class DirectoryIndexTest {
+
+    private static byte[] archive() {
+        var builder = new TestArchives();
+        for (var i = 0; i < 100; i++) {
+            builder.add("dir%d/%03d.%s".formatted(i % 3, i, i % 2 == 0 ? "txt" : "bin"),
+                TestArchives.text("entry " + i, i), i % 5 == 0, i % 7 == 0 ? TestArchives.extra(i) : null);
+        }
+        return builder.toByteArray();
+    }
+
+    private static DirectoryIndex build(byte[] archive, String filter) throws IOException {
+        try (var input = RandomAccessInput.wrap(archive, 0)) {
+            return DirectoryIndex.build(CentralDirectory.read(input), filter == null ? null : Filter.parse(filter));
+        }
+    }
+
+    @Test
+    void all() throws IOException {
+        var archive = archive();
+        var index = build(archive, null);
+        assertEquals(100, index.size());
+        try (var input = RandomAccessInput.wrap(archive, 0)) {
+            var i = 0;
+            for (var entry : CentralDirectory.read(input)) {
+                assertEquals(entry.position(), index.header(i));
+                assertEquals(entry.text("Name"), index.name(i));
+                assertEquals(entry.number("Local header"), index.offset(i));
+                assertEquals(entry.number("Original"), index.original(i));
+                assertEquals(entry.number("Method"), index.method(i));
+                assertArrayEquals(entry.bytes("Extra"), index.extra(i));
+                assertEquals(i, index.find(entry.text("Name")));
+                i += 1;
+            }
+        }
+        assertEquals(-1, index.find("dir0/999.txt"));
+    }
+
+    @Test
+    void filtered() throws IOException {
+        var all = build(archive(), null);
+        var index = build(archive(), "name=dir1/*.txt; size>50");
+        var expected = 0;
+        for (var i = 0; i < all.size(); i++) {
+            if (all.name(i).startsWith("dir1/") && all.name(i).endsWith(".txt") && all.original(i) > 50) {
+                assertEquals(all.name(i), index.name(expected));
+                assertArrayEquals(all.extra(i), index.extra(expected));
+                expected += 1;
+            }
+        }
+        assertEquals(expected, index.size());
+        assertTrue(expected > 0);
+        assertEquals(0, build(archive(), "name=none").size());
+    }
+
+    @Test
+    void invalidHeader() throws IOException {
+        var archive = archive();
+        var index = build(archive, null);
+        TestArchives.putInt(archive, index.header(50), 0);
+        var ex = assertThrows(IOException.class, () -> build(archive, null));
+        assertEquals("no central directory file header at 0x%x".formatted(index.header(50)), ex.getMessage());
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright: Carlos F. Heuberger. All rights reserved.
+ *
+ */
+package cfh.zipinfo;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.util.NoSuchElementException;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Records decoded by the {@link Decoder} of their {@link EntryType}.
+ *
+ * @author Carlos F. Heuberger, 2026-10-17
+ *
+ */
+class EntryTest {
+
+    private static final byte[] DATA = TestArchives.text("entry data\n", 50);
+
+    private static byte[] archive() {
+        return new TestArchives()
+            .add("dir/grüße.txt", DATA, true, TestArchives.extra(9))
+            .toByteArray();
+    }
+
+    @Test
+    void fixed() {
+        // without the signature
+        assertEquals(26, EntryType.LocalFileHeader.decoder().fixed());
+        assertEquals(42, EntryType.CentralDirectoryFileHeader.decoder().fixed());
+        assertEquals(18, EntryType.EndOfCentralDirectory.decoder().fixed());
+    }
+
+    @Test
+    void localHeader() throws IOException {
+        try (var input = RandomAccessInput.wrap(archive(), 0)) {
+            var entry = Entry.read(input);
+            assertEquals(EntryType.LocalFileHeader, entry.type());
+            assertEquals(0, entry.position());
+            assertEquals(DATA.length, entry.number("Original"));
+            assertEquals(DATA.length, entry.number("Compressed"));
+            assertEquals(0, entry.number("Method"));
+            assertEquals(ZipString.FLAG_UTF8, entry.number("Flags") & ZipString.FLAG_UTF8);
+            assertEquals("dir/grüße.txt", entry.text("Name"));
+            assertArrayEquals(TestArchives.extra(9), entry.bytes("Extra"));
+            assertEquals(30 + entry.number("Name") + 13, input.position());
+            assertThrows(NoSuchElementException.class, () -> entry.number("Local header"));
+            assertThrows(NoSuchElementException.class, () -> entry.text("Extra"));
+        }
+    }
+
+    @Test
+    void centralHeader() throws IOException {
+        var archive = archive();
+        var index = TestArchives.index(archive);
+        try (var input = RandomAccessInput.wrap(archive, 0)) {
+            input.seek(index.header(0));
+            var entry = Entry.read(input);
+            assertEquals(EntryType.CentralDirectoryFileHeader, entry.type());
+            assertEquals(index.header(0), entry.position());
+            assertEquals(index.offset(0), entry.number("Local header"));
+            assertEquals(index.original(0), entry.number("Original"));
+            assertEquals(Integer.toUnsignedLong(index.crc(0)), entry.number("CRC"));
+            assertEquals("dir/grüße.txt", entry.text("Name"));
+            assertArrayEquals(index.nameBytes(0), entry.bytes("Name"));
+            assertEquals("", entry.text("Comment"));
+            assertEquals(new Zip64Extra(DATA.length, DATA.length, 0, 0, false), Zip64Extra.resolve(entry));
+
+            assertEquals(EntryType.CentralDirectoryFileHeader.fields().size(), entry.fields().size());
+            assertTrue(entry.toString().contains("dir/grüße.txt"), entry.toString());
+        }
+    }
+
+    @Test
+    void of() {
+        var entry = Entry.of(0x100, EntryType.FileData, 5L << 30);
+        assertEquals(0x100, entry.position());
+        assertEquals(5L << 30, entry.number("Size"));
+        assertEquals(1, entry.fields().size());
+    }
+
+    @Test
+    void unknown() throws IOException {
+        try (var input = RandomAccessInput.wrap(new byte[] { 'P', 'K', 9, 9, 0, 0 }, 0)) {
+            var ex = assertThrows(IOException.class, () -> Entry.read(input));
+            assertTrue(ex.getMessage().startsWith("Unrecognized type"), ex.getMessage());
+        }
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright: Carlos F. Heuberger. All rights reserved.
+ *
+ */
+package cfh.zipinfo;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author Carlos F. Heuberger, 2026-10-17
+ *
+ */
+class FilterTest {
+
+    private static final int DEFLATED = 8;
+    /** 2026-10-17 12:00:00 in MS-DOS format. */
+    private static final int DATE_TIME = ((2026 - 1980) << 25 | 10 << 21 | 17 << 16) | (12 << 11);
+
+    private static boolean name(String expression, String name) {
+        var bytes = ByteBuffer.wrap(name.getBytes(StandardCharsets.UTF_8));
+        return Filter.parse(expression).test(bytes, DEFLATED, ZipString.FLAG_UTF8, DATE_TIME, 100, 1000);
+    }
+
+    private static boolean values(String expression) {
+        var bytes = ByteBuffer.wrap("a.txt".getBytes(StandardCharsets.US_ASCII));
+        return Filter.parse(expression).test(bytes, DEFLATED, 0x0008, DATE_TIME, 100, 1000);
+    }
+
+    @Test
+    void star() {
+        assertTrue(name("name=*.class", "A.class"));
+        assertFalse(name("name=*.class", "cfh/A.class"));
+        assertTrue(name("name=cfh/*.class", "cfh/A.class"));
+        assertFalse(name("name=cfh/*.class", "cfh/zipinfo/A.class"));
+        assertTrue(name("name=cfh/*", "cfh/"));
+    }
+
+    @Test
+    void doubleStar() {
+        assertTrue(name("name=**.class", "cfh/zipinfo/A.class"));
+        assertTrue(name("name=cfh/**/A.class", "cfh/zipinfo/A.class"));
+        assertTrue(name("name=**/A.class", "cfh/x/y/A.class"));
+        assertFalse(name("name=**/A.class", "cfh/x/y/B.class"));
+        assertTrue(name("name!=**.txt", "cfh/A.class"));
+    }
+
+    @Test
+    void question() {
+        assertTrue(name("name=?.txt", "a.txt"));
+        assertFalse(name("name=?.txt", "ab.txt"));
+        assertFalse(name("name=?.txt", "/.txt"));
+        // one character of two UTF-8 bytes
+        assertTrue(name("name=gr??e.txt", "grüße.txt"));
+        assertFalse(name("name=gr???e.txt", "grüße.txt"));
+    }
+
+    @Test
+    void regex() {
+        assertTrue(name("name~ü.e", "dir/grüße.txt"));
+        assertFalse(name("name~^grüße", "dir/grüße.txt"));
+    }
+
+    @Test
+    void numbers() {
+        assertTrue(values("method=deflated"));
+        assertFalse(values("method=stored"));
+        assertTrue(values("method!=0"));
+        assertTrue(values("size>=1000; compressed<1K"));
+        assertFalse(values("size>1000"));
+        assertTrue(values("size<1M"));
+        assertTrue(values("flags&0x0808"));
+        assertFalse(values("flags=0"));
+        assertTrue(values("date>=2026-10-17; date<2026-10-18"));
+        assertFalse(values("date<2026-1-1"));
+        assertTrue(values(""));
+    }
+
+    @Test
+    void invalid() {
+        assertThrows(IllegalArgumentException.class, () -> Filter.parse("size"));
+        assertThrows(IllegalArgumentException.class, () -> Filter.parse("name<a"));
+        assertThrows(IllegalArgumentException.class, () -> Filter.parse("method~stored"));
+        assertThrows(IllegalArgumentException.class, () -> Filter.parse("owner=me"));
+    }
+}
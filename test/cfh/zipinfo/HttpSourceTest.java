@@ -0,0 +1,116 @@
+/*
+ * Copyright: Carlos F. Heuberger. All rights reserved.
+ *
+ */
+package cfh.zipinfo;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * {@link Sources#http(URI)} read through the block cache from a stub server on the loopback
+ * address: an archive served with range requests, a server sending fewer bytes than the size it
+ * announced, and a server ignoring the {@code Range} header.
+ *
+ * @author Carlos F. Heuberger, 2026-10-17
+ *
+ */
+class HttpSourceTest {
+
+    private static final Pattern RANGE = Pattern.compile("bytes=(\\d+)-(\\d+)");
+
+    private static byte[] archive;
+    private static HttpServer server;
+    private static String base;
+
+    @BeforeAll
+    static void start() throws IOException {
+        var builder = new TestArchives();
+        for (var i = 0; i < 2_000; i++) {
+            builder.deflated("check/%04d.txt".formatted(i), TestArchives.text("entry " + i + "\n", 10));
+        }
+        archive = builder.toByteArray();
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/range.zip", exchange -> range(exchange, archive, archive.length));
+        // announces the size of the archive but only has its first half
+        var half = Arrays.copyOf(archive, archive.length / 2);
+        server.createContext("/short.zip", exchange -> range(exchange, half, archive.length));
+        server.createContext("/ignore.zip", exchange -> {
+            exchange.sendResponseHeaders(200, archive.length);
+            try (var body = exchange.getResponseBody()) {
+                body.write(archive);
+            }
+        });
+        server.start();
+        base = "http://127.0.0.1:%d/".formatted(server.getAddress().getPort());
+    }
+
+    @AfterAll
+    static void stop() {
+        server.stop(0);
+    }
+
+    @Test
+    void rangeRead() throws IOException {
+        try (var input = RandomAccessInput.open(Sources.http(URI.create(base + "range.zip")))) {
+            var index = DirectoryIndex.build(CentralDirectory.read(input));
+            assertEquals(2_000, index.size());
+            assertEquals("check/1999.txt", index.name(1_999));
+            input.seek(0);
+            assertArrayEquals(archive, input.readBytes((int) input.length()));
+        }
+    }
+
+    @Test
+    @Timeout(30)
+    void shortRead() throws IOException {
+        try (var input = RandomAccessInput.open(Sources.http(URI.create(base + "short.zip")))) {
+            assertEquals(archive.length, input.length());
+            input.seek(0);
+            assertThrows(EOFException.class, () -> input.readBytes((int) input.length()));
+        }
+    }
+
+    @Test
+    void rangeIgnored() {
+        var ex = assertThrows(IOException.class, () -> Sources.http(URI.create(base + "ignore.zip")));
+        assertTrue(ex.getMessage().contains("range requests not supported"), ex.getMessage());
+    }
+
+    //----------------------------------------------------------------------------------------------
+
+    /** Answers a range request with the requested part of {@code bytes}, cut at their end, as part of {@code size} bytes. */
+    private static void range(HttpExchange exchange, byte[] bytes, long size) throws IOException {
+        var header = exchange.getRequestHeaders().getFirst("Range");
+        var matcher = header == null ? null : RANGE.matcher(header);
+        if (matcher == null || !matcher.matches()) {
+            exchange.sendResponseHeaders(416, -1);
+            exchange.close();
+            return;
+        }
+        var first = Integer.parseInt(matcher.group(1));
+        var last = (int) Math.min(Long.parseLong(matcher.group(2)), size - 1);
+        var from = Math.min(first, bytes.length);
+        var to = Math.min(last + 1, bytes.length);
+        exchange.getResponseHeaders().set("Content-Range", "bytes %d-%d/%d".formatted(first, last, size));
+        exchange.sendResponseHeaders(206, to > from ? to - from : -1);
+        try (var body = exchange.getResponseBody()) {
+            body.write(bytes, from, to - from);
+        }
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright: Carlos F. Heuberger. All rights reserved.
+ *
+ */
+package cfh.zipinfo;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Indexes stored by the {@link IndexCache}: read back by a new cache without being written again,
+ * rebuilt if the archive changed, and replaced if written by another version or corrupt.
+ *
+ * @author Carlos F. Heuberger, 2026-10-17
+ *
+ */
+class IndexCacheTest {
+
+    private static final FileTime OLD = FileTime.fromMillis(1_000_000_000_000L);
+
+    @TempDir
+    Path temp;
+
+    private Path archive;
+    private Path directory;
+
+    @BeforeEach
+    void archive() throws IOException {
+        // an extra field of odd length needs the padding of the extras column
+        archive = new TestArchives()
+            .add("odd.txt", TestArchives.text("odd", 10), false, TestArchives.extra(9))
+            .stored("grüße.txt", TestArchives.text("grüße", 5))
+            .deflated("dir/data.bin", TestArchives.text("data", 1000))
+            .write(temp.resolve("a.zip"));
+        directory = temp.resolve("cache");
+    }
+
+    @Test
+    void roundTrip() throws IOException {
+        var built = get();
+        var stored = stored();
+        Files.setLastModifiedTime(stored, OLD);
+
+        var loaded = get();
+        assertEquals(OLD, Files.getLastModifiedTime(stored), "stored again");
+        assertNotSame(built, loaded);
+        assertEquals(built.size(), loaded.size());
+        for (var i = 0; i < built.size(); i++) {
+            assertEquals(built.name(i), loaded.name(i));
+            assertEquals(built.offset(i), loaded.offset(i));
+            assertEquals(built.compressed(i), loaded.compressed(i));
+            assertEquals(built.original(i), loaded.original(i));
+            assertEquals(built.crc(i), loaded.crc(i));
+            assertEquals(built.flags(i), loaded.flags(i));
+            assertArrayEquals(built.extra(i), loaded.extra(i));
+        }
+        assertEquals(13, loaded.extra(0).length);
+        assertEquals(1, loaded.find("grüße.txt"));
+    }
+
+    @Test
+    void changedArchive() throws IOException {
+        assertEquals(3, get().size());
+        new TestArchives().stored("other.txt", TestArchives.text("other", 1)).write(archive);
+        var index = get();
+        assertEquals(1, index.size());
+        assertEquals("other.txt", index.name(0));
+    }
+
+    @Test
+    void otherVersion() throws IOException {
+        get();
+        var stored = stored();
+        patch(stored, 4, 1);
+        Files.setLastModifiedTime(stored, OLD);
+
+        assertEquals(3, get().size());
+        assertNotEquals(OLD, Files.getLastModifiedTime(stored), "not replaced");
+        assertEquals(2, read(stored, 4));
+    }
+
+    @Test
+    void truncated() throws IOException {
+        get();
+        var stored = stored();
+        var length = Files.size(stored);
+        try (var channel = FileChannel.open(stored, StandardOpenOption.WRITE)) {
+            channel.truncate(length / 2);
+        }
+
+        var err = System.err;
+        var messages = new ByteArrayOutputStream();
+        System.setErr(new PrintStream(messages, true));
+        try {
+            assertEquals("dir/data.bin", get().name(2));
+        } finally {
+            System.setErr(err);
+        }
+        assertTrue(messages.toString().contains("invalid cache file deleted"), messages.toString());
+        assertEquals(length, Files.size(stored));
+    }
+
+    @Test
+    void notAnIndex() throws IOException {
+        get();
+        var stored = stored();
+        patch(stored, 0, 0);
+
+        var err = System.err;
+        System.setErr(new PrintStream(new ByteArrayOutputStream(), true));
+        try {
+            assertEquals(3, get().size());
+        } finally {
+            System.setErr(err);
+        }
+        assertNotEquals(0, read(stored, 0));
+    }
+
+    //----------------------------------------------------------------------------------------------
+
+    /** The index from a new cache, only found in memory if stored in the directory. */
+    private DirectoryIndex get() throws IOException {
+        var cache = new IndexCache(directory, IndexCache.MEMORY);
+        try (var input = RandomAccessInput.open(archive.toFile(), RandomAccessInput.Mode.Direct)) {
+            return cache.get(archive.toFile(), input);
+        }
+    }
+
+    private Path stored() throws IOException {
+        try (var files = Files.list(directory)) {
+            var list = files.toList();
+            assertEquals(1, list.size());
+            return list.get(0);
+        }
+    }
+
+    private static void patch(Path file, int position, int value) throws IOException {
+        var bytes = Files.readAllBytes(file);
+        TestArchives.putInt(bytes, position, value);
+        Files.write(file, bytes);
+    }
+
+    private static int read(Path file, int position) throws IOException {
+        return ByteBuffer.wrap(Files.readAllBytes(file)).order(ByteOrder.LITTLE_ENDIAN).getInt(position);
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright: Carlos F. Heuberger. All rights reserved.
+ *
+ */
+package cfh.zipinfo;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import cfh.zipinfo.RandomAccessInput.MappedInput;
+
+/**
+ * Reads of a {@link MappedInput} with a small window size, crossing many region boundaries and
+ * their overlaps.
+ *
+ * @author Carlos F. Heuberger, 2026-10-17
+ *
+ */
+class MappedInputTest {
+
+    private static final int WINDOW = 1024;
+
+    @TempDir
+    Path temp;
+
+    private byte[] data;
+    private Path file;
+
+    @BeforeEach
+    void file() throws IOException {
+        data = new byte[3 << 20];
+        new Random(17).nextBytes(data);
+        file = Files.write(temp.resolve("data.bin"), data);
+    }
+
+    @Test
+    void sequentialInts() throws IOException {
+        var expected = ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN);
+        try (var input = new MappedInput(file.toFile(), WINDOW)) {
+            input.seek(1);
+            var position = 1;
+            for (; position + Integer.BYTES <= data.length; position += Integer.BYTES) {
+                assertEquals(expected.getInt(position), input.readInt(), "at " + position);
+            }
+            assertThrows(EOFException.class, () -> input.readInt());
+        }
+    }
+
+    @Test
+    void sequentialLongsAfterBack() throws IOException {
+        var expected = ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN);
+        try (var input = new MappedInput(file.toFile(), WINDOW)) {
+            // the region of the end is kept when going back to the start
+            input.seek(data.length - Long.BYTES);
+            assertEquals(expected.getLong(data.length - Long.BYTES), input.readLong());
+            input.seek(WINDOW - 3);
+            for (var position = WINDOW - 3; position + Long.BYTES <= 4 * WINDOW + (2 << 20); position += Long.BYTES) {
+                assertEquals(expected.getLong(position), input.readLong(), "at " + position);
+            }
+        }
+    }
+
+    @Test
+    void randomReads() throws IOException {
+        var random = new Random(42);
+        try (var direct = RandomAccessInput.open(file.toFile(), RandomAccessInput.Mode.Direct);
+             var mapped = new MappedInput(file.toFile(), WINDOW)) {
+            for (var i = 0; i < 5_000; i++) {
+                var position = random.nextInt(data.length - 8);
+                var count = Math.min(random.nextInt(3 * WINDOW), data.length - position);
+                direct.seek(position);
+                mapped.seek(position);
+                assertArrayEquals(direct.readBytes(count), mapped.readBytes(count), "at " + position);
+                assertEquals(direct.position(), mapped.position());
+            }
+        }
+    }
+
+    @Test
+    void slices() throws IOException {
+        var random = new Random(7);
+        try (var mapped = new MappedInput(file.toFile(), WINDOW)) {
+            for (var i = 0; i < 1_000; i++) {
+                var start = random.nextInt(data.length);
+                var length = Math.min(random.nextInt(WINDOW + 1), data.length - start);
+                try (var slice = mapped.slice(start, length)) {
+                    assertEquals(length, slice.length());
+                    slice.seek(0);
+                    var bytes = slice.readBytes(length);
+                    for (var j = 0; j < length; j++) {
+                        assertEquals(data[start + j], bytes[j], "at " + (start + j));
+                    }
+                }
+            }
+        }
+    }
+}
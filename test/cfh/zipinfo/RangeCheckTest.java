@@ -0,0 +1,99 @@
+/*
+ * Copyright: Carlos F. Heuberger. All rights reserved.
+ *
+ */
+package cfh.zipinfo;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import cfh.zipinfo.RangeCheck.Finding;
+import cfh.zipinfo.RangeCheck.Kind;
+
+/**
+ * @author Carlos F. Heuberger, 2026-10-17
+ *
+ */
+class RangeCheckTest {
+
+    /** Offsets in the central directory file header. */
+    private static final int COMPRESSED = 20;
+    private static final int LOCAL_HEADER = 42;
+
+    private static byte[] archive() {
+        return new TestArchives()
+            .stored("a.txt", TestArchives.text("first entry\n", 20))
+            .deflated("b.txt", TestArchives.text("second entry\n", 20))
+            .stored("c.txt", TestArchives.text("third entry\n", 20))
+            .toByteArray();
+    }
+
+    private static List<Finding> check(byte[] archive) throws IOException {
+        try (var input = RandomAccessInput.wrap(archive, 0)) {
+            var directory = CentralDirectory.read(input);
+            var index = DirectoryIndex.build(directory);
+            return new RangeCheck(index, directory.offset(), RangeCheck.RATIO).check(input);
+        }
+    }
+
+    @Test
+    void clean() throws IOException {
+        assertEquals(List.of(), check(archive()));
+    }
+
+    @Test
+    void overlap() throws IOException {
+        var archive = archive();
+        var index = TestArchives.index(archive);
+        TestArchives.putInt(archive, index.header(2) + LOCAL_HEADER, (int) index.offset(1));
+
+        var findings = check(archive);
+        assertEquals(List.of(Kind.Overlap), findings.stream().map(Finding::kind).toList());
+    }
+
+    @Test
+    void outside() throws IOException {
+        var archive = archive();
+        var index = TestArchives.index(archive);
+        TestArchives.putInt(archive, index.header(2) + COMPRESSED, archive.length);
+
+        var findings = check(archive);
+        assertEquals(List.of(Kind.Outside), findings.stream().map(Finding::kind).toList());
+        assertEquals("c.txt", findings.get(0).name());
+    }
+
+    @Test
+    void directory() throws IOException {
+        var archive = archive();
+        var index = TestArchives.index(archive);
+        TestArchives.putInt(archive, index.header(2) + COMPRESSED, (int) index.compressed(2) + 50);
+
+        var findings = check(archive);
+        assertEquals(List.of(Kind.Directory), findings.stream().map(Finding::kind).toList());
+    }
+
+    @Test
+    void ratio() throws IOException {
+        var archive = new TestArchives().deflated("zeros.bin", new byte[1 << 20]).toByteArray();
+
+        var findings = check(archive);
+        assertEquals(List.of(Kind.Ratio, Kind.Ratio), findings.stream().map(Finding::kind).toList());
+        assertEquals("zeros.bin", findings.get(0).name());
+        assertEquals("archive", findings.get(1).name());
+    }
+
+    @Test
+    void missingHeader() throws IOException {
+        var archive = archive();
+        var index = TestArchives.index(archive);
+        TestArchives.putInt(archive, index.header(1) + LOCAL_HEADER, (int) index.offset(1) + 1);
+
+        var findings = check(archive);
+        assertEquals(List.of(Kind.Header), findings.stream().map(Finding::kind).toList());
+        assertEquals("b.txt", findings.get(0).name());
+    }
+}
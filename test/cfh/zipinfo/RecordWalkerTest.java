@@ -0,0 +1,110 @@
+/*
+ * Copyright: Carlos F. Heuberger. All rights reserved.
+ *
+ */
+package cfh.zipinfo;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author Carlos F. Heuberger, 2026-10-17
+ *
+ */
+class RecordWalkerTest {
+
+    private static byte[] archive() {
+        return new TestArchives()
+            .stored("a.txt", TestArchives.text("stored entry\n", 100))
+            .deflated("b.txt", TestArchives.text("deflated entry\n", 1000))
+            .add("c.txt", TestArchives.text("extra\n", 10), true, TestArchives.extra(9))
+            .toByteArray();
+    }
+
+    private static List<String> walk(RandomAccessInput input) throws IOException {
+        var records = new ArrayList<String>();
+        try (input; var walker = new RecordWalker(input)) {
+            while (walker.hasNext()) {
+                var entry = walker.next();
+                records.add("%s %d".formatted(entry.type(), entry.position()));
+            }
+        }
+        return records;
+    }
+
+    @Test
+    void records() throws IOException {
+        var archive = archive();
+        var index = TestArchives.index(archive);
+        var records = walk(RandomAccessInput.wrap(archive, 0));
+        assertEquals(List.of(
+            "LocalFileHeader 0", "FileData %d".formatted(index.offset(0) + 35),
+            "LocalFileHeader " + index.offset(1), "FileData %d".formatted(index.offset(1) + 35),
+            "DataDescriptor %d".formatted(index.offset(2) - 16),
+            "LocalFileHeader " + index.offset(2), "FileData %d".formatted(index.offset(2) + 35 + 13),
+            "CentralDirectoryFileHeader " + index.header(0),
+            "CentralDirectoryFileHeader " + index.header(1),
+            "CentralDirectoryFileHeader " + index.header(2),
+            "EndOfCentralDirectory " + (archive.length - 22)),
+            records);
+    }
+
+    @Test
+    void stream() throws IOException {
+        var archive = archive();
+        assertEquals(walk(RandomAccessInput.wrap(archive, 0)), walk(RandomAccessInput.stream(new ByteArrayInputStream(archive))));
+    }
+
+    @Test
+    void streamLookahead() throws IOException {
+        var builder = new TestArchives();
+        for (var i = 0; i < 50; i++) {
+            builder.stored("%02d.txt".formatted(i), TestArchives.text("stored entry\n", 80));
+        }
+        var in = new SlowStream(builder.toByteArray());
+        try (var input = RandomAccessInput.stream(in); var walker = new RecordWalker(input)) {
+            assertTrue(walker.hasNext());
+            assertEquals(EntryType.LocalFileHeader, walker.next().type());
+            assertTrue(walker.hasNext());
+            // the first header, with the data of the entry read by the same reads
+            assertTrue(in.delivered < 2 * SlowStream.CHUNK, "read " + in.delivered);
+        }
+    }
+
+    @Test
+    void trailingBytes() throws IOException {
+        var archive = archive();
+        var index = TestArchives.index(archive);
+        var records = walk(RandomAccessInput.wrap(Arrays.copyOf(archive, (int) index.offset(1)), 0));
+        assertEquals(2, records.size());
+        var ex = assertThrows(RuntimeException.class,
+            () -> walk(RandomAccessInput.wrap(Arrays.copyOf(archive, (int) index.offset(1) + 2), 0)));
+        assertTrue(ex.getCause() instanceof IOException, ex.toString());
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /** Stream delivering at most {@value #CHUNK} bytes per read, like a slow pipe. */
+    private static final class SlowStream extends ByteArrayInputStream {
+        static final int CHUNK = 1500;
+        int delivered = 0;
+        SlowStream(byte[] bytes) {
+            super(bytes);
+        }
+        @Override
+        public synchronized int read(byte[] b, int off, int len) {
+            var count = super.read(b, off, Math.min(len, CHUNK));
+            if (count > 0) {
+                delivered += count;
+            }
+            return count;
+        }
+    }
+}
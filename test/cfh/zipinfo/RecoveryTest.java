@@ -0,0 +1,93 @@
+/*
+ * Copyright: Carlos F. Heuberger. All rights reserved.
+ *
+ */
+package cfh.zipinfo;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import cfh.zipinfo.Recovery.Recovered;
+
+/**
+ * @author Carlos F. Heuberger, 2026-10-17
+ *
+ */
+class RecoveryTest {
+
+    @TempDir
+    Path temp;
+
+    private static byte[] archive() {
+        return new TestArchives()
+            .stored("a.txt", TestArchives.text("PK stored entry\n", 20))
+            .deflated("b.txt", TestArchives.text("deflated entry\n", 20))
+            .stored("c.txt", TestArchives.text("last entry\n", 20))
+            .toByteArray();
+    }
+
+    private List<Recovered> recover(byte[] bytes) throws IOException {
+        var file = Files.write(temp.resolve("r.zip"), bytes).toFile();
+        try (var recovery = new Recovery(file);
+             var input = RandomAccessInput.wrap(bytes, 0)) {
+            return recovery.recover(input, ForkJoinPool.commonPool());
+        }
+    }
+
+    private static List<EntryType> types(List<Recovered> recovered) {
+        return recovered.stream().map(r -> r.entry().type()).toList();
+    }
+
+    @Test
+    void complete() throws IOException {
+        var recovered = recover(archive());
+        assertEquals(List.of(
+            EntryType.LocalFileHeader, EntryType.LocalFileHeader, EntryType.DataDescriptor, EntryType.LocalFileHeader,
+            EntryType.CentralDirectoryFileHeader, EntryType.CentralDirectoryFileHeader, EntryType.CentralDirectoryFileHeader,
+            EntryType.EndOfCentralDirectory),
+            types(recovered));
+        assertTrue(recovered.stream().allMatch(r -> r.problem() == null), recovered::toString);
+        assertEquals("b.txt", recovered.get(1).entry().text("Name"));
+    }
+
+    @Test
+    void withoutDirectory() throws IOException {
+        var archive = archive();
+        var index = TestArchives.index(archive);
+        var recovered = recover(Arrays.copyOf(archive, (int) index.header(0)));
+        assertEquals(List.of(EntryType.LocalFileHeader, EntryType.LocalFileHeader, EntryType.DataDescriptor, EntryType.LocalFileHeader),
+            types(recovered));
+        assertEquals("c.txt", recovered.get(3).entry().text("Name"));
+    }
+
+    @Test
+    void truncatedData() throws IOException {
+        var archive = archive();
+        var index = TestArchives.index(archive);
+        var recovered = recover(Arrays.copyOf(archive, (int) index.offset(2) + 60));
+        var last = recovered.get(recovered.size() - 1);
+        assertEquals("c.txt", last.entry().text("Name"));
+        assertTrue(last.problem().startsWith("data truncated"), last.problem());
+    }
+
+    @Test
+    void scanChunks() throws IOException {
+        // a signature spanning two words of the scan
+        var bytes = new byte[64];
+        TestArchives.putInt(bytes, 13, EntryType.LocalFileHeader.signature());
+        TestArchives.putInt(bytes, 60, EntryType.CentralDirectoryFileHeader.signature());
+        var file = Files.write(temp.resolve("s.bin"), bytes).toFile();
+        try (var recovery = new Recovery(file)) {
+            assertArrayEquals(new long[] { 13, 60 }, recovery.scan(ForkJoinPool.commonPool()));
+        }
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright: Carlos F. Heuberger. All rights reserved.
+ *
+ */
+package cfh.zipinfo;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Requests to a {@link Server} keeping only one archive open, so most requests close the archive
+ * used by the other connections.
+ *
+ * @author Carlos F. Heuberger, 2026-10-17
+ *
+ */
+@Timeout(60)
+class ServerTest {
+
+    @TempDir
+    Path temp;
+
+    private Path socket;
+    private Thread thread;
+    private final Path[] archives = new Path[3];
+
+    @BeforeEach
+    void start() throws Exception {
+        for (var i = 0; i < archives.length; i++) {
+            var builder = new TestArchives();
+            for (var j = 0; j < 50 + i; j++) {
+                builder.deflated("a%d/%03d.txt".formatted(i, j), TestArchives.text("entry %d %d\n".formatted(i, j), 100));
+            }
+            archives[i] = builder.write(temp.resolve("a%d.zip".formatted(i)));
+        }
+        socket = temp.resolve("server.sock");
+        var server = new Server(new IndexCache(null, IndexCache.MEMORY), 1);
+        var log = new PrintStream(new ByteArrayOutputStream(), true);
+        thread = new Thread(() -> {
+            try {
+                server.serve(socket.toString(), log);
+            } catch (IOException ex) {
+                // interrupted
+            }
+        });
+        thread.start();
+        while (!Files.exists(socket)) {
+            Thread.sleep(10);
+        }
+    }
+
+    @AfterEach
+    void stop() throws InterruptedException {
+        thread.interrupt();
+        thread.join(10_000);
+    }
+
+    @Test
+    void requests() throws IOException {
+        try (var client = new Client()) {
+            assertEquals("ok 50 entries", client.request("list " + archives[0]).last());
+            var lookup = client.request("lookup\t%s\ta1/007.txt".formatted(archives[1]));
+            assertEquals("ok entry 7", lookup.last());
+            assertEquals("  name a1/007.txt", lookup.lines().get(0));
+            assertEquals("ok 52 entries verified", client.request("verify " + archives[2]).last());
+            assertEquals("ok " + archives[0], client.request("stat " + archives[0]).last());
+            assertTrue(client.request("list " + temp.resolve("none.zip")).last().startsWith("error not a file"));
+            assertEquals("error unknown command: nothing", client.request("nothing " + archives[0]).last());
+        }
+    }
+
+    @Test
+    void concurrentWithEviction() throws Exception {
+        var tasks = new ArrayList<Callable<Void>>();
+        for (var c = 0; c < 4; c++) {
+            var first = c;
+            tasks.add(() -> {
+                try (var client = new Client()) {
+                    for (var i = 0; i < 30; i++) {
+                        var n = (first + i) % archives.length;
+                        assertEquals("ok %d entries verified".formatted(50 + n), client.request("verify " + archives[n]).last());
+                        assertEquals("ok %d entries".formatted(50 + n), client.request("list " + archives[n]).last());
+                    }
+                }
+                return null;
+            });
+        }
+        try (var executor = Executors.newFixedThreadPool(tasks.size())) {
+            for (var future : executor.invokeAll(tasks, 50, TimeUnit.SECONDS)) {
+                future.get();
+            }
+        }
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+
+    private record Response(List<String> lines, String last) {
+    }
+
+    private final class Client implements AutoCloseable {
+        private final SocketChannel channel;
+        private final BufferedReader in;
+        private final PrintStream out;
+        Client() throws IOException {
+            channel = SocketChannel.open(StandardProtocolFamily.UNIX);
+            channel.connect(UnixDomainSocketAddress.of(socket));
+            in = new BufferedReader(new InputStreamReader(Channels.newInputStream(channel), StandardCharsets.UTF_8));
+            out = new PrintStream(Channels.newOutputStream(channel), true, StandardCharsets.UTF_8);
+        }
+        Response request(String request) throws IOException {
+            out.println(request);
+            var lines = new ArrayList<String>();
+            String line;
+            while ((line = in.readLine()) != null && line.startsWith("  ")) {
+                lines.add(line);
+            }
+            return new Response(lines, line);
+        }
+        @Override
+        public void close() throws IOException {
+            out.println("quit");
+            in.readLine();
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright: Carlos F. Heuberger. All rights reserved.
+ *
+ */
+package cfh.zipinfo;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * The top lists of the {@link Summary} do not depend on the order of the entries nor on how the
+ * work is split: ties are listed by name.
+ *
+ * @author Carlos F. Heuberger, 2026-10-17
+ *
+ */
+class SummaryTest {
+
+    private static final byte[] DATA = TestArchives.text("same data\n", 100);
+
+    private static String summary(List<String> names, int top) throws IOException {
+        var builder = new TestArchives();
+        for (var name : names) {
+            builder.deflated(name, DATA);
+        }
+        var summary = Summary.of("tie.zip", TestArchives.index(builder.toByteArray()), top, ForkJoinPool.commonPool());
+        var bytes = new ByteArrayOutputStream();
+        summary.print(new PrintStream(bytes, true, StandardCharsets.UTF_8));
+        return bytes.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void tie() throws IOException {
+        var first = summary(List.of("b.txt", "a.txt"), 1);
+        var second = summary(List.of("a.txt", "b.txt"), 1);
+        assertEquals(first, second);
+        assertTrue(first.contains("tie.zip!a.txt"), first);
+        assertFalse(first.contains("tie.zip!b.txt"), first);
+    }
+
+    @Test
+    void manyTies() throws IOException {
+        var names = new ArrayList<String>();
+        for (var i = 0; i < 5_000; i++) {
+            names.add("dir/%04d.txt".formatted(i));
+        }
+        var expected = summary(names, 3);
+        assertTrue(expected.contains("tie.zip!dir/0000.txt"), expected);
+        assertTrue(expected.contains("tie.zip!dir/0002.txt"), expected);
+        assertFalse(expected.contains("tie.zip!dir/0003.txt"), expected);
+        Collections.shuffle(names, new Random(5));
+        assertEquals(expected, summary(names, 3));
+        Collections.reverse(names);
+        assertEquals(expected, summary(names, 3));
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright: Carlos F. Heuberger. All rights reserved.
+ *
+ */
+package cfh.zipinfo;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Small archives built in memory for the tests, with a fixed time so they are repeatable.
+ *
+ * @author Carlos F. Heuberger, 2026-10-17
+ *
+ */
+final class TestArchives {
+
+    private static final long TIME = 1_790_000_000_000L;
+
+    private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    private final ZipOutputStream zip;
+
+    TestArchives() {
+        this(StandardCharsets.UTF_8);
+    }
+
+    /** @param charset of the names, UTF-8 sets the flag bit 11 for names not in ASCII */
+    TestArchives(Charset charset) {
+        zip = new ZipOutputStream(bytes, charset);
+    }
+
+    TestArchives stored(String name, byte[] data) {
+        return add(name, data, true, null);
+    }
+
+    TestArchives deflated(String name, byte[] data) {
+        return add(name, data, false, null);
+    }
+
+    TestArchives add(String name, byte[] data, boolean stored, byte[] extra) {
+        var entry = new ZipEntry(name);
+        entry.setTime(TIME);
+        if (extra != null) {
+            entry.setExtra(extra);
+        }
+        if (stored) {
+            var crc = new CRC32();
+            crc.update(data);
+            entry.setMethod(ZipEntry.STORED);
+            entry.setSize(data.length);
+            entry.setCompressedSize(data.length);
+            entry.setCrc(crc.getValue());
+        } else {
+            entry.setMethod(ZipEntry.DEFLATED);
+        }
+        try {
+            zip.putNextEntry(entry);
+            zip.write(data);
+            zip.closeEntry();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return this;
+    }
+
+    byte[] toByteArray() {
+        try {
+            zip.close();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return bytes.toByteArray();
+    }
+
+    Path write(Path file) throws IOException {
+        return Files.write(file, toByteArray());
+    }
+
+    //==============================================================================================
+
+    static byte[] text(String text, int times) {
+        return text.repeat(times).getBytes(StandardCharsets.UTF_8);
+    }
+
+    /** An extra field with an unknown header ID and {@code length} bytes of data. */
+    static byte[] extra(int length) {
+        var extra = ByteBuffer.allocate(4 + length).order(ByteOrder.LITTLE_ENDIAN);
+        extra.putShort((short) 0xCAFE).putShort((short) length);
+        for (var i = 0; i < length; i++) {
+            extra.put((byte) i);
+        }
+        return extra.array();
+    }
+
+    static DirectoryIndex index(byte[] archive) throws IOException {
+        try (var input = RandomAccessInput.wrap(archive, 0)) {
+            return DirectoryIndex.build(CentralDirectory.read(input));
+        }
+    }
+
+    /** Writes {@code value} as little-endian int at {@code position}. */
+    static void putInt(byte[] bytes, long position, int value) {
+        ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).putInt((int) position, value);
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright: Carlos F. Heuberger. All rights reserved.
+ *
+ */
+package cfh.zipinfo;
+
+import static cfh.zipinfo.Zip64Extra.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author Carlos F. Heuberger, 2026-10-17
+ *
+ */
+class Zip64ExtraTest {
+
+    /** Some other field followed by a Zip64 field with {@code values}, 8 bytes each but the disk. */
+    private static byte[] extra(long... values) {
+        var data = values.length * 8;
+        var buffer = ByteBuffer.allocate(8 + 4 + data).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putShort((short) 0xCAFE).putShort((short) 4).putInt(-1);
+        buffer.putShort(HEADER_ID).putShort((short) data);
+        for (var value : values) {
+            buffer.putLong(value);
+        }
+        return buffer.array();
+    }
+
+    @Test
+    void absent() {
+        var extra = TestArchives.extra(12);
+        var zip64 = resolve(extra, 0, extra.length, 10, 20, 30, 0);
+        assertEquals(new Zip64Extra(10, 20, 30, 0, false), zip64);
+        assertEquals(new Zip64Extra(10, 20, 30, 0, false), resolve(new byte[0], 0, 0, 10, 20, 30, 0));
+    }
+
+    @Test
+    void saturated() {
+        var extra = extra(5L << 30, 4L << 30, 6L << 30);
+        var zip64 = resolve(extra, 0, extra.length, SATURATED4, SATURATED4, SATURATED4, 0);
+        assertEquals(new Zip64Extra(5L << 30, 4L << 30, 6L << 30, 0, true), zip64);
+    }
+
+    @Test
+    void onlySaturatedInOrder() {
+        // only the offset is saturated, so the field has only the offset
+        var extra = extra(7L << 32);
+        var zip64 = resolve(extra, 0, extra.length, 100, 50, SATURATED4, 0);
+        assertEquals(new Zip64Extra(100, 50, 7L << 32, 0, true), zip64);
+    }
+
+    @Test
+    void disk() {
+        var buffer = ByteBuffer.allocate(4 + 12).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putShort(HEADER_ID).putShort((short) 12).putLong(9L << 32).putInt(3);
+        var extra = buffer.array();
+        var zip64 = resolve(extra, 0, extra.length, SATURATED4, 50, 60, SATURATED2);
+        assertEquals(new Zip64Extra(9L << 32, 50, 60, 3, true), zip64);
+    }
+
+    @Test
+    void tooShort() {
+        // saturated values without data keep their saturated value
+        var extra = extra(1L << 33);
+        var zip64 = resolve(extra, 0, extra.length, SATURATED4, SATURATED4, SATURATED4, 0);
+        assertEquals(new Zip64Extra(1L << 33, SATURATED4, SATURATED4, 0, true), zip64);
+    }
+
+    @Test
+    void offsetInArray() {
+        var field = extra(3L << 32);
+        var extra = new byte[field.length + 10];
+        System.arraycopy(field, 0, extra, 5, field.length);
+        var zip64 = resolve(extra, 5, field.length, SATURATED4, 1, 2, 0);
+        assertEquals(new Zip64Extra(3L << 32, 1, 2, 0, true), zip64);
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright: Carlos F. Heuberger. All rights reserved.
+ *
+ */
+package cfh.zipinfo;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author Carlos F. Heuberger, 2026-10-17
+ *
+ */
+class ZipStringTest {
+
+    @Test
+    void ascii() {
+        var bytes = "dir/name.txt".getBytes(StandardCharsets.US_ASCII);
+        assertEquals("dir/name.txt", ZipString.decode(bytes, 0, bytes.length, false));
+        assertEquals("name", ZipString.decode(bytes, 4, 4, true));
+    }
+
+    @Test
+    void utf8() {
+        var bytes = "grüße/€.txt".getBytes(StandardCharsets.UTF_8);
+        assertEquals("grüße/€.txt", ZipString.decode(bytes, 0, bytes.length, true));
+    }
+
+    @Test
+    void cp437() {
+        // 0x81 ü, 0xE1 ß, 0xC4 ─, 0xFF non-breaking space
+        var bytes = new byte[] { 'g', 'r', (byte) 0x81, (byte) 0xE1, 'e', (byte) 0xC4, (byte) 0xFF };
+        assertEquals("grüße─ ", ZipString.decode(bytes, 0, bytes.length, false));
+        assertArrayEquals(bytes, ZipString.encodeCp437("grüße─ "));
+        assertNull(ZipString.encodeCp437("€"));
+    }
+
+    @Test
+    void allCp437() {
+        var bytes = new byte[256];
+        for (var i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) i;
+        }
+        var text = ZipString.decode(bytes, 0, bytes.length, false);
+        assertEquals(256, text.length());
+        assertArrayEquals(bytes, ZipString.encodeCp437(text));
+    }
+
+    @Test
+    void buffer() {
+        var bytes = "xxgrüßexx".getBytes(StandardCharsets.UTF_8);
+        var heap = ByteBuffer.wrap(bytes, 2, bytes.length - 4);
+        assertEquals("grüße", ZipString.decode(heap.slice(), true));
+        var direct = ByteBuffer.allocateDirect(bytes.length).put(bytes).flip().position(2).limit(bytes.length - 2);
+        assertEquals("grüße", ZipString.decode(direct, true));
+        assertEquals(2, direct.position());
+    }
+}